@@ -0,0 +1,75 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.javasharks.puntosventaapi.dto.AcreditacionPageResponse;
+import com.javasharks.puntosventaapi.dto.AcreditacionResponse;
+import com.javasharks.puntosventaapi.model.Accreditation;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeo de entidades a {@link AcreditacionResponse} y serialización JSON de una página del listado,
+ * con un ObjectMapper configurado como el de Spring Boot (fechas ISO).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccreditationSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    int pageSize;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private List<Accreditation> accreditations;
+    private AcreditacionPageResponse page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        accreditations = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            accreditations.add(Accreditation.builder()
+                    .id((long) i)
+                    .amount(BigDecimal.valueOf(1000 + i, 2))
+                    .sellingPointId((long) (i % 10))
+                    .sellingPointName("Punto de venta " + (i % 10))
+                    .creationDate(start.plusSeconds(i))
+                    .build());
+        }
+        page = new AcreditacionPageResponse(map(), "MjAyNC0wMS0wMVQwMDowMHwx");
+    }
+
+    @Benchmark
+    public List<AcreditacionResponse> map() {
+        List<AcreditacionResponse> responses = new ArrayList<>(accreditations.size());
+        for (Accreditation a : accreditations) {
+            responses.add(new AcreditacionResponse(a.getId(), a.getAmount(), a.getSellingPointId(),
+                    a.getSellingPointName(), a.getCreatedAt()));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new AcreditacionPageResponse(map(), null));
+    }
+}
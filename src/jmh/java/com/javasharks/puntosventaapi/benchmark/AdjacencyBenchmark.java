@@ -0,0 +1,76 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adyacencias de un nodo al azar: recorriendo el snapshot CSR, desde un mapa de mapas y
+ * decodificando el hash de Redis (réplica en memoria, sin red).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdjacencyBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "100000"})
+    int nodes;
+
+    private CostGraph graph;
+    private Map<Long, Map<Long, Double>> adjacency;
+    private Map<String, Map<byte[], byte[]>> hashes;
+    private final GenericJackson2JsonRedisSerializer values = new GenericJackson2JsonRedisSerializer();
+    private final long[] ids = new long[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        adjacency = SyntheticGraphs.adjacency(nodes, 4, 42);
+        graph = CostGraph.fromAdjacency(adjacency);
+        hashes = SyntheticGraphs.redisStandIn(adjacency);
+        Random random = new Random(7);
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = random.nextInt(nodes);
+        }
+    }
+
+    @Benchmark
+    public double snapshot() {
+        int node = graph.indexOf(ids[next++ & (LOOKUPS - 1)]);
+        double sum = 0;
+        for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+            sum += graph.weight(e) + graph.idAt(graph.target(e));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double hashMap() {
+        double sum = 0;
+        for (Map.Entry<Long, Double> entry : adjacency.get(ids[next++ & (LOOKUPS - 1)]).entrySet()) {
+            sum += entry.getValue() + entry.getKey();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double redisHash() {
+        double sum = 0;
+        for (Map.Entry<byte[], byte[]> entry
+                : hashes.get(SyntheticGraphs.COSTO_KEY_PREFIX + ids[next++ & (LOOKUPS - 1)]).entrySet()) {
+            sum += ((Number) values.deserialize(entry.getValue())).doubleValue()
+                    + Long.parseLong(StringRedisSerializer.UTF_8.deserialize(entry.getKey()));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,103 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de trabajar contra el formato de Redis (sobre una réplica en memoria, sin red):
+ * <ul>
+ *   <li>{@code perHopDijkstra}: Dijkstra que lee y decodifica el hash de cada nodo al asentarlo,
+ *       como hacía la búsqueda antes de usar el snapshot. En Redis real suma un round trip por salto.</li>
+ *   <li>{@code loadSnapshot}: decodificar todos los hashes y armar el snapshot CSR, como
+ *       {@code RedisCostGraphStore.load()} tras el pipeline de HGETALL.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisStandInGraphBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    int nodes;
+
+    private Map<String, Map<byte[], byte[]>> hashes;
+    private final GenericJackson2JsonRedisSerializer values = new GenericJackson2JsonRedisSerializer();
+    private final long[] origins = new long[PAIRS];
+    private final long[] destinations = new long[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashes = SyntheticGraphs.redisStandIn(SyntheticGraphs.adjacency(nodes, 4, 42));
+        Random random = new Random(7);
+        for (int i = 0; i < PAIRS; i++) {
+            origins[i] = random.nextInt(nodes);
+            destinations[i] = random.nextInt(nodes);
+        }
+    }
+
+    @Benchmark
+    public double perHopDijkstra() {
+        int i = next++ & (PAIRS - 1);
+        long target = destinations[i];
+        Map<Long, Double> distances = new HashMap<>();
+        Set<Long> settled = new HashSet<>();
+        PriorityQueue<Map.Entry<Long, Double>> queue = new PriorityQueue<>(Map.Entry.comparingByValue());
+        distances.put(origins[i], 0.0);
+        queue.add(Map.entry(origins[i], 0.0));
+
+        while (!queue.isEmpty()) {
+            Map.Entry<Long, Double> current = queue.poll();
+            long node = current.getKey();
+            if (!settled.add(node)) {
+                continue;
+            }
+            if (node == target) {
+                return current.getValue();
+            }
+            decode(hashes.get(SyntheticGraphs.COSTO_KEY_PREFIX + node)).forEach((adjacent, cost) -> {
+                double distance = current.getValue() + cost;
+                if (distance < distances.getOrDefault(adjacent, Double.POSITIVE_INFINITY)) {
+                    distances.put(adjacent, distance);
+                    queue.add(Map.entry(adjacent, distance));
+                }
+            });
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public CostGraph loadSnapshot() {
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>(hashes.size() * 2);
+        hashes.forEach((key, hash) ->
+                adjacency.put(Long.parseLong(key.substring(SyntheticGraphs.COSTO_KEY_PREFIX.length())), decode(hash)));
+        return CostGraph.fromAdjacency(adjacency);
+    }
+
+    private Map<Long, Double> decode(Map<byte[], byte[]> hash) {
+        Map<Long, Double> adjacents = new HashMap<>();
+        hash.forEach((field, value) -> adjacents.put(
+                Long.parseLong(StringRedisSerializer.UTF_8.deserialize(field)),
+                ((Number) values.deserialize(value)).doubleValue()));
+        return adjacents;
+    }
+}
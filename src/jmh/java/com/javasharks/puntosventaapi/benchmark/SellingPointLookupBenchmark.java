@@ -0,0 +1,79 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import com.javasharks.puntosventaapi.cache.NearCache;
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import com.javasharks.puntosventaapi.storage.RedisValueFormat;
+import com.javasharks.puntosventaapi.storage.SellingPointCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code findById} de puntos de venta con y sin el caché local. Sin caché, cada lectura decodifica
+ * el valor tal como lo guarda Redis, en cada formato (réplica en memoria: no incluye el round
+ * trip, que en producción domina).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SellingPointLookupBenchmark {
+
+    private static final int POINTS = 10_000;
+    private static final int LOOKUPS = 4096;
+
+    @Param({"JSON", "COMPACT"})
+    RedisValueFormat format;
+
+    private SellingPointCodec serializer;
+    private final Map<String, byte[]> redis = new HashMap<>();
+    private NearCache<Long, SellingPoint> localCache;
+    private final long[] ids = new long[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = new SellingPointCodec(format);
+        for (long id = 1; id <= POINTS; id++) {
+            redis.put("sellingPoint:" + id, serializer.serialize(new SellingPoint(id, "Punto de venta " + id)));
+        }
+        localCache = new NearCache<>("punto-venta", POINTS, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        Random random = new Random(7);
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = 1 + random.nextInt(POINTS);
+        }
+    }
+
+    @Benchmark
+    public SellingPoint withoutLocalCache() {
+        return load(ids[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public SellingPoint withLocalCache() {
+        return localCache.get(ids[next++ & (LOOKUPS - 1)], this::load);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SellingPoint withLocalCacheContended(ThreadCursor cursor) {
+        return localCache.get(ids[cursor.next++ & (LOOKUPS - 1)], this::load);
+    }
+
+    private SellingPoint load(Long id) {
+        byte[] value = redis.get("sellingPoint:" + id);
+        return value == null ? null : serializer.deserialize(value);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCursor {
+        int next = new Random().nextInt(LOOKUPS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.graph.PathAlgorithm;
+import com.javasharks.puntosventaapi.graph.PathQueryEngine;
+import com.javasharks.puntosventaapi.graph.PathSearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino mínimo entre pares al azar sobre el snapshot en memoria, por algoritmo y tamaño de grafo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    int nodes;
+
+    @Param({"DIJKSTRA", "BIDIRECTIONAL", "ALT"})
+    PathAlgorithm algorithm;
+
+    private CostGraph graph;
+    private PathQueryEngine engine;
+    private final long[] origins = new long[PAIRS];
+    private final long[] destinations = new long[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        graph = CostGraph.fromAdjacency(SyntheticGraphs.adjacency(nodes, 4, 42));
+        engine = new PathQueryEngine(new SimpleMeterRegistry(), PathAlgorithm.ALT, 8);
+        engine.graphChanged(graph);
+        // Los landmarks se calculan en segundo plano; sin esperarlos ALT mediría la bidireccional
+        while (!engine.landmarksReady(graph)) {
+            Thread.sleep(10);
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < PAIRS; i++) {
+            origins[i] = random.nextInt(nodes);
+            destinations[i] = random.nextInt(nodes);
+        }
+    }
+
+    @Benchmark
+    public PathSearchResult search() {
+        int i = next++ & (PAIRS - 1);
+        return engine.search(graph, origins[i], destinations[i], algorithm);
+    }
+}
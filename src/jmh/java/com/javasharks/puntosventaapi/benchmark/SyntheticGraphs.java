@@ -0,0 +1,61 @@
+package com.javasharks.puntosventaapi.benchmark;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Grafos sintéticos para los benchmarks: un árbol aleatorio (garantiza que sea conexo) más
+ * aristas al azar hasta el grado medio pedido, con costos entre 1 y 100.
+ */
+final class SyntheticGraphs {
+
+    static final String COSTO_KEY_PREFIX = "costo:";
+
+    private SyntheticGraphs() {
+    }
+
+    static Map<Long, Map<Long, Double>> adjacency(int nodes, int averageDegree, long seed) {
+        Random random = new Random(seed);
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>(nodes * 2);
+        for (long node = 1; node < nodes; node++) {
+            connect(adjacency, node, random.nextInt((int) node), 1 + random.nextInt(100));
+        }
+        long extraEdges = (long) nodes * averageDegree / 2 - (nodes - 1);
+        for (long i = 0; i < extraEdges; i++) {
+            long a = random.nextInt(nodes);
+            long b = random.nextInt(nodes);
+            if (a != b) {
+                connect(adjacency, a, b, 1 + random.nextInt(100));
+            }
+        }
+        return adjacency;
+    }
+
+    /**
+     * Réplica en memoria de cómo queda el grafo en Redis: un hash {@code costo:<id>} por nodo, con
+     * campos y valores serializados igual que en {@code RedisConfig}. Reemplaza al servidor para
+     * medir la decodificación sin la red.
+     */
+    static Map<String, Map<byte[], byte[]>> redisStandIn(Map<Long, Map<Long, Double>> adjacency) {
+        RedisSerializer<String> fields = StringRedisSerializer.UTF_8;
+        GenericJackson2JsonRedisSerializer values = new GenericJackson2JsonRedisSerializer();
+        Map<String, Map<byte[], byte[]>> hashes = new HashMap<>(adjacency.size() * 2);
+        adjacency.forEach((node, adjacents) -> {
+            Map<byte[], byte[]> hash = new LinkedHashMap<>();
+            adjacents.forEach((adjacent, cost) -> hash.put(fields.serialize(adjacent.toString()), values.serialize(cost)));
+            hashes.put(COSTO_KEY_PREFIX + node, hash);
+        });
+        return hashes;
+    }
+
+    private static void connect(Map<Long, Map<Long, Double>> adjacency, long a, long b, double cost) {
+        adjacency.computeIfAbsent(a, k -> new HashMap<>()).put(b, cost);
+        adjacency.computeIfAbsent(b, k -> new HashMap<>()).put(a, cost);
+    }
+}
@@ -2,12 +2,12 @@ package com.javasharks.puntosventaapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCaching
 @EnableJpaRepositories
+@EnableScheduling
 public class PuntosVentaApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,190 @@
+package com.javasharks.puntosventaapi.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Caché local (L1) delante de un almacén remoto, acotado por cantidad de entradas (LRU)
+ * y con vencimiento por tiempo desde la escritura.
+ * <p>
+ * La coherencia con el almacén depende de que cada escritura llame a {@link #invalidate(Object)}
+ * o {@link #invalidateAll()} (localmente y en las demás instancias); el TTL acota cuánto puede
+ * durar una entrada si se pierde un aviso. Un valor leído del almacén solo se guarda si no hubo
+ * ninguna invalidación mientras se leía, así una lectura lenta no reinstala un valor viejo.
+ * Los valores ausentes ({@code null}) no se cachean.
+ * <p>
+ * Expone {@code cache.gets} (hit/miss), {@code cache.remote.avoided} (consultas al almacén
+ * evitadas), {@code cache.evictions} y el gauge {@code cache.size}, con el tag {@code cache}.
+ */
+public class NearCache<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, Entry<V>> entries;
+    private final long ttlNanos;
+    // Avanza con cada invalidación; una carga solo se guarda si no cambió mientras leía
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter remoteAvoided;
+    private final Counter evictions;
+
+    public NearCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .register(meterRegistry);
+        this.remoteAvoided = Counter.builder("cache.remote.avoided").tag("cache", name)
+                .description("Consultas al almacén remoto resueltas por completo desde el caché local")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name)
+                .register(meterRegistry);
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("cache.size", this, NearCache::size).tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve el valor local o lo lee del almacén con {@code loader}.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                remoteAvoided.increment();
+                return cached;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        V value = loader.apply(key);
+        if (value != null) {
+            putIfCurrent(Map.of(key, value), loadGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Devuelve los valores presentes para las claves dadas. Las que no están en el caché local
+     * se piden al almacén en una sola llamada a {@code loader}; las ausentes no figuran en el resultado.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long loadGeneration;
+        lock.lock();
+        try {
+            for (K key : new LinkedHashSet<>(keys)) {
+                V cached = lookup(key);
+                if (cached != null) {
+                    result.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+        hits.increment(result.size());
+        misses.increment(missing.size());
+
+        if (missing.isEmpty()) {
+            remoteAvoided.increment();
+            return result;
+        }
+        Map<K, V> loaded = loader.apply(missing);
+        putIfCurrent(loaded, loadGeneration);
+        result.putAll(loaded);
+        return result;
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Debe llamarse con el lock tomado.
+     */
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.writtenAt() > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private void putIfCurrent(Map<K, V> values, long loadGeneration) {
+        lock.lock();
+        try {
+            if (generation != loadGeneration) {
+                return;
+            }
+            long now = System.nanoTime();
+            values.forEach((key, value) -> entries.put(key, new Entry<>(value, now)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+}
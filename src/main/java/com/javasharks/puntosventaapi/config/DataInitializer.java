@@ -13,7 +13,7 @@ import org.springframework.context.annotation.Configuration;
 import java.util.List;
 
 /**
- * Configuración para inicializar datos en Redis al arranque de la aplicación.
+ * Configuración para inicializar datos en el almacén (Redis o memoria) al arranque de la aplicación.
  *
  * Utiliza ApplicationRunner de Spring Boot para ejecutar código al inicio.
  * 
@@ -38,14 +38,14 @@ public class DataInitializer implements ApplicationRunner {
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        log.info("=== Iniciando carga de datos iniciales en Redis ===");
+        log.info("=== Iniciando carga de datos iniciales ===");
         // Inicializar Puntos de Venta en Redis
         initializePuntosVenta();
 
         // Inicializar Costos en Redis
         initializeCostos();
 
-        log.info("=== Datos iniciales cargados exitosamente en Redis ===");
+        log.info("=== Datos iniciales cargados exitosamente ===");
     }
 
     private void initializePuntosVenta() {
@@ -0,0 +1,49 @@
+package com.javasharks.puntosventaapi.config;
+
+import com.javasharks.puntosventaapi.storage.RedisCommandMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Pools dedicados para cálculos sobre el grafo de costos.
+ * <p>
+ * La matriz de distancias corre en su propio ForkJoinPool acotado, separado del
+ * common pool y de los hilos de Tomcat, para que un lote grande no deje sin CPU
+ * a los endpoints interactivos. Las tareas que recibe con {@code invokeAll} cuentan sus
+ * comandos de Redis en el pedido que las reparte.
+ * <p>
+ * Son cálculos de CPU sin bloqueos, así que siguen en hilos de plataforma aunque
+ * {@code spring.threads.virtual.enabled} esté activo: un hilo virtual no agrega
+ * paralelismo y el pool acotado es justamente el límite que se quiere.
+ */
+@Configuration
+public class GraphExecutorConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool distanceMatrixPool(
+            @Value("${app.graph.matrix.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0
+                ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new RequestAwarePool(threads);
+    }
+
+    private static final class RequestAwarePool extends ForkJoinPool {
+
+        private RequestAwarePool(int parallelism) {
+            super(parallelism);
+        }
+
+        @Override
+        public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+            return super.invokeAll(tasks.stream().map(RedisCommandMetrics::propagate).toList());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.javasharks.puntosventaapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita {@code @Timed} en los servicios: cada método público queda medido en
+ * {@code service.calls}, con la clase, el método y la excepción (si la hubo) como tags.
+ * <p>
+ * Spring Boot no registra el aspecto por su cuenta; AOP ya está en el classpath por JPA.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
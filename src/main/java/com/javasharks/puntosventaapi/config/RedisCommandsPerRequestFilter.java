@@ -0,0 +1,92 @@
+package com.javasharks.puntosventaapi.config;
+
+import com.javasharks.puntosventaapi.storage.RedisCommandMetrics;
+import com.javasharks.puntosventaapi.storage.StorageType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Abre un conteo de comandos de Redis por pedido HTTP y lo registra en
+ * {@code redis.commands.per.request} al terminar el pedido.
+ * <p>
+ * Las respuestas en streaming se escriben en otro hilo después de que el filtro retorna: el
+ * conteo se asocia también a ese hilo y se registra cuando termina la escritura. Con
+ * {@code app.storage.type=memory} no hay comandos y el filtro no se aplica.
+ */
+@Component
+public class RedisCommandsPerRequestFilter extends OncePerRequestFilter {
+
+    private static final String INTERCEPTOR_KEY = RedisCommandsPerRequestFilter.class.getName();
+
+    private final RedisCommandMetrics commands;
+    private final boolean enabled;
+
+    public RedisCommandsPerRequestFilter(RedisCommandMetrics commands,
+                                         @Value("${app.storage.type:redis}") StorageType storageType) {
+        this.commands = commands;
+        this.enabled = storageType == StorageType.REDIS;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RedisCommandMetrics.RequestCount count = new RedisCommandMetrics.RequestCount();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(INTERCEPTOR_KEY, new AsyncCount(count));
+        try (RedisCommandMetrics.Scope ignored = RedisCommandMetrics.bind(count)) {
+            chain.doFilter(request, response);
+        } finally {
+            // Si la respuesta sigue en otro hilo, se registra al completarse
+            if (!isAsyncStarted(request)) {
+                commands.recordRequest(count);
+            }
+        }
+    }
+
+    /**
+     * Lleva el conteo al hilo que procesa la respuesta asincrónica y lo registra al terminar.
+     */
+    private final class AsyncCount implements CallableProcessingInterceptor {
+
+        private final RedisCommandMetrics.RequestCount count;
+        private final ThreadLocal<RedisCommandMetrics.Scope> scope = new ThreadLocal<>();
+
+        private AsyncCount(RedisCommandMetrics.RequestCount count) {
+            this.count = count;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            scope.set(RedisCommandMetrics.bind(count));
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object result) {
+            RedisCommandMetrics.Scope current = scope.get();
+            if (current != null) {
+                scope.remove();
+                current.close();
+            }
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            commands.recordRequest(count);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.javasharks.puntosventaapi.config;
 
+import com.javasharks.puntosventaapi.event.ClusterChangeNotifier;
+import com.javasharks.puntosventaapi.storage.RedisCommandMetrics;
 import jakarta.xml.bind.annotation.XmlType;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -24,39 +28,9 @@ import java.time.Duration;
  * - TTL automático para expiración de datos
  */
 @Configuration
-@EnableCaching
 public class RedisConfig {
 
     public static final Duration DEFAULT_TTL = Duration.ofHours(24);
-    /**
-     * Configura el CacheManager de Spring con Redis.
-     * 
-     * Configuración:
-     * - TTL de 24 horas por defecto
-     * - Serialización JSON para objetos
-     * - Claves con prefijo para evitar colisiones
-     */
-    @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofHours(24))
-            .disableCachingNullValues()
-            .serializeKeysWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(
-                    new StringRedisSerializer()
-                )
-            )
-            .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(
-                    new GenericJackson2JsonRedisSerializer()
-                )
-            );
-        
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
-            .transactionAware()
-            .build();
-    }
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
@@ -73,4 +47,43 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * Suma los comandos de cada pedido en {@link RedisCommandMetrics}. El listener se agrega al
+     * cliente de Lettuce apenas se crea, antes de que se abra ninguna conexión.
+     */
+    @Bean
+    public static BeanPostProcessor redisCommandsPerRequestListener() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof LettuceConnectionFactory factory) {
+                    factory.getRequiredNativeClient().addListener(RedisCommandMetrics.requestListener());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Suscripción al canal de avisos de cambio entre instancias.
+     * Con {@code app.cluster.events.enabled=false}, o con el almacenamiento en memoria, la instancia
+     * no escucha ni difunde cambios (y no abre la conexión de suscripción).
+     */
+    @Bean
+    @ConditionalOnExpression("${app.cluster.events.enabled:true} and '${app.storage.type:redis}'.equalsIgnoreCase('redis')")
+    public RedisMessageListenerContainer clusterChangeListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        ClusterChangeNotifier notifier,
+                                                                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (virtualThreads) {
+            // Spring Boot no configura este contenedor; sin esto la suscripción y los avisos usan hilos de plataforma
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("redis-listener-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+        container.addMessageListener(notifier, new ChannelTopic(notifier.channel()));
+        return container;
+    }
+}
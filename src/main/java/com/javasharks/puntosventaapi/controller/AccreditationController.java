@@ -1,17 +1,31 @@
 package com.javasharks.puntosventaapi.controller;
 
+import com.javasharks.puntosventaapi.dto.AcreditacionPageResponse;
 import com.javasharks.puntosventaapi.dto.AcreditacionRequest;
 import com.javasharks.puntosventaapi.dto.AcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.ResumenAcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.SerieAcreditacionResponse;
+import com.javasharks.puntosventaapi.export.AccreditationExport;
+import com.javasharks.puntosventaapi.export.ExportFormat;
+import com.javasharks.puntosventaapi.ingestion.RollupGranularity;
 import com.javasharks.puntosventaapi.service.AccreditationService;
+import com.javasharks.puntosventaapi.service.AccreditationService.ProcessedAccreditation;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
@@ -26,26 +40,90 @@ public class AccreditationController {
     }
 
     @PostMapping
-    @Operation(summary = "Procesar una nueva acreditación")
+    @Operation(summary = "Procesar una nueva acreditación (201 si ya se persistió, 202 si quedó encolada)")
     public ResponseEntity<AcreditacionResponse> addAcreditacion(
             @Valid @RequestBody AcreditacionRequest request) {
-        AcreditacionResponse response = accreditationService.procesarAcreditacion(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        ProcessedAccreditation processed = accreditationService.procesarAcreditacion(request);
+        HttpStatus status = processed.persisted() ? HttpStatus.CREATED : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(processed.acreditacion());
     }
     
     @GetMapping
-    @Operation(summary = "Obtener todas las acreditaciones")
-    public ResponseEntity<List<AcreditacionResponse>> getAllAcreditaciones() {
-        List<AcreditacionResponse> acreditaciones = accreditationService.getAllAcreditaciones();
-        return ResponseEntity.ok(acreditaciones);
+    @Operation(summary = "Obtener acreditaciones paginadas por cursor, de la más reciente a la más antigua")
+    public ResponseEntity<AcreditacionPageResponse> getAcreditaciones(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(accreditationService.getAcreditaciones(cursor, limite));
     }
     
     @GetMapping("/punto-venta/{puntoVentaId}")
-    @Operation(summary = "Obtener acreditaciones por punto de venta")
-    public ResponseEntity<List<AcreditacionResponse>> getAcreditacionesByPuntoVenta(
-            @PathVariable Long puntoVentaId) {
-        List<AcreditacionResponse> acreditaciones =
-            accreditationService.getAcreditacionesByPuntoVenta(puntoVentaId);
-        return ResponseEntity.ok(acreditaciones);
+    @Operation(summary = "Obtener acreditaciones de un punto de venta paginadas por cursor")
+    public ResponseEntity<AcreditacionPageResponse> getAcreditacionesByPuntoVenta(
+            @PathVariable Long puntoVentaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(accreditationService.getAcreditacionesByPuntoVenta(puntoVentaId, cursor, limite));
+    }
+
+    @GetMapping("/resumen")
+    @Operation(summary = "Obtener los totales de acreditaciones de todos los puntos de venta")
+    public ResponseEntity<List<ResumenAcreditacionResponse>> getResumen() {
+        return ResponseEntity.ok(accreditationService.getResumen());
+    }
+
+    @GetMapping("/resumen/{puntoVentaId}")
+    @Operation(summary = "Obtener los totales de acreditaciones de un punto de venta")
+    public ResponseEntity<ResumenAcreditacionResponse> getResumenByPuntoVenta(@PathVariable Long puntoVentaId) {
+        return ResponseEntity.ok(accreditationService.getResumenByPuntoVenta(puntoVentaId));
+    }
+
+    @PostMapping("/resumen/reconstruir")
+    @Operation(summary = "Recalcular los totales desde la tabla de acreditaciones")
+    public ResponseEntity<Void> reconstruirResumen() {
+        accreditationService.reconstruirResumen();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/series")
+    @Operation(summary = "Obtener la serie por hora o por día de un punto de venta, desde los acumulados")
+    public ResponseEntity<SerieAcreditacionResponse> getSerie(
+            @RequestParam Long puntoVentaId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularidad) {
+        return ResponseEntity.ok(accreditationService.getSerie(puntoVentaId, desde, hasta, granularidad));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar acreditaciones en streaming (NDJSON o CSV), con gzip si el cliente lo acepta")
+    public ResponseEntity<StreamingResponseBody> exportAcreditaciones(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) Long puntoVentaId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AccreditationExport export = accreditationService.exportAcreditaciones(formato, desde, hasta, puntoVentaId);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // syncFlush: cada flush del exportador llega comprimido al cliente sin esperar al final
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true)) {
+                    export.writeTo(compressed);
+                }
+            } else {
+                export.writeTo(out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("acreditaciones." + formato.extension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 }
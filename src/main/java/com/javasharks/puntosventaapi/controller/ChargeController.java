@@ -1,6 +1,13 @@
 package com.javasharks.puntosventaapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javasharks.puntosventaapi.dto.ChargeBatchResponse;
+import com.javasharks.puntosventaapi.dto.ComponentsResponse;
+import com.javasharks.puntosventaapi.dto.DistanceMatrixRequest;
+import com.javasharks.puntosventaapi.dto.DistanceMatrixResponse;
 import com.javasharks.puntosventaapi.dto.MinDistanceResponse;
+import com.javasharks.puntosventaapi.graph.PathAlgorithm;
 import com.javasharks.puntosventaapi.dto.AdjacentSellingPointResponse;
 import com.javasharks.puntosventaapi.model.Charge;
 import com.javasharks.puntosventaapi.service.ChargeService;
@@ -9,18 +16,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/costos")
 @Tag(name = "Costos", description = "API para gestión de costos entre puntos de venta")
 public class ChargeController {
 
+    // Cada cuántos elementos se vacía el buffer al enviar respuestas en streaming
+    private static final int FLUSH_EVERY = 100;
+
     private final ChargeService chargeService;
+    private final ObjectMapper objectMapper;
 
-    public ChargeController(ChargeService chargeService) {
+    public ChargeController(ChargeService chargeService, ObjectMapper objectMapper) {
         this.chargeService = chargeService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -30,6 +48,13 @@ public class ChargeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     
+    @PostMapping("/lote")
+    @Operation(summary = "Cargar costos en forma masiva; informa insertados, actualizados y rechazados")
+    public ResponseEntity<ChargeBatchResponse> importCharges(@RequestBody List<Charge> charges) {
+        ChargeBatchResponse response = chargeService.importCharges(charges);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping
     @Operation(summary = "Remover un costo entre dos puntos de venta")
     public ResponseEntity<Void> removeCharge(
@@ -50,8 +75,46 @@ public class ChargeController {
     @Operation(summary = "Calcular el camino con value mínimo entre dos puntos de venta")
     public ResponseEntity<MinDistanceResponse> getMinDistance(
             @RequestParam Long origen,
-            @RequestParam Long destino) {
-        MinDistanceResponse response = chargeService.calculateMinDistance(origen, destino);
+            @RequestParam Long destino,
+            @RequestParam(required = false) PathAlgorithm algoritmo) {
+        MinDistanceResponse response = chargeService.calculateMinDistance(origen, destino, algoritmo);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/arbol-minimo/{origen}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Calcular los caminos mínimos desde un punto de venta hacia varios destinos con una sola búsqueda")
+    public ResponseEntity<StreamingResponseBody> getShortestPathTree(
+            @PathVariable Long origen,
+            @RequestParam(required = false) List<Long> destinos) {
+        Stream<MinDistanceResponse> caminos = chargeService.calculateShortestPathTree(origen, destinos);
+        StreamingResponseBody body = out -> {
+            try (caminos; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                Iterator<MinDistanceResponse> iterator = caminos.iterator();
+                for (int i = 1; iterator.hasNext(); i++) {
+                    generator.writeObject(iterator.next());
+                    if (i % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping("/matriz")
+    @Operation(summary = "Calcular la matriz de costos mínimos entre conjuntos de puntos de venta")
+    public ResponseEntity<DistanceMatrixResponse> getDistanceMatrix(
+            @Valid @RequestBody DistanceMatrixRequest request) {
+        DistanceMatrixResponse response = chargeService.calculateDistanceMatrix(
+                request.origenes(), request.destinos(), request.incluirSiguienteSalto());
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/componentes")
+    @Operation(summary = "Consultar los componentes conexos del grafo de costos")
+    public ResponseEntity<ComponentsResponse> getComponents() {
+        return ResponseEntity.ok(chargeService.getComponents());
+    }
 }
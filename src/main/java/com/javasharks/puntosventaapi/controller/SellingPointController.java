@@ -22,10 +22,24 @@ public class SellingPointController {
         this.sellingPointService = sellingPointService;
     }
 
+    // Cabecera con el valor de "desde" para pedir la página siguiente
+    private static final String NEXT_PAGE_HEADER = "X-Siguiente-Desde";
+
     @GetMapping
-    @Operation(summary = "Obtener todos los puntos de venta")
-    public ResponseEntity<List<SellingPoint>> getAll() {
-        return ResponseEntity.ok(sellingPointService.findAll());
+    @Operation(summary = "Obtener los puntos de venta, todos o paginados por ID (desde, limite)")
+    public ResponseEntity<List<SellingPoint>> getAll(
+            @RequestParam(required = false) Long desde,
+            @RequestParam(required = false) Integer limite) {
+        if (limite == null) {
+            return ResponseEntity.ok(sellingPointService.findAll());
+        }
+
+        List<SellingPoint> page = sellingPointService.findPage(desde == null ? 0L : desde, limite);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == limite) {
+            response.header(NEXT_PAGE_HEADER, String.valueOf(page.get(page.size() - 1).id() + 1));
+        }
+        return response.body(page);
     }
     
     @GetMapping("/{id}")
@@ -0,0 +1,13 @@
+package com.javasharks.puntosventaapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO con una página de acreditaciones, de la más reciente a la más antigua.
+ * {@code siguienteCursor} se pasa tal cual para pedir la página siguiente; es {@code null} en la última.
+ */
+public record AcreditacionPageResponse(
+        List<AcreditacionResponse> acreditaciones,
+        String siguienteCursor
+) {
+}
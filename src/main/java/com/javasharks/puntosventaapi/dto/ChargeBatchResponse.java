@@ -0,0 +1,20 @@
+package com.javasharks.puntosventaapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una carga masiva de costos.
+ * Un costo es "actualizado" si la conexión ya existía y solo cambió su valor.
+ */
+public record ChargeBatchResponse(
+    int insertados,
+    int actualizados,
+    int rechazados,
+    List<Rechazo> rechazos
+) {
+    public record Rechazo(
+        Long origenId,
+        Long destinoId,
+        String motivo
+    ) {}
+}
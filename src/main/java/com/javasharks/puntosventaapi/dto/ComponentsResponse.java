@@ -0,0 +1,17 @@
+package com.javasharks.puntosventaapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO con los componentes conexos del grafo de costos, de mayor a menor.
+ * Solo incluye los puntos de venta que tienen al menos una conexión.
+ */
+public record ComponentsResponse(
+    int cantidadComponentes,
+    List<ComponentInfo> componentes
+) {
+    public record ComponentInfo(
+        int tamanio,
+        List<Long> puntosVenta
+    ) {}
+}
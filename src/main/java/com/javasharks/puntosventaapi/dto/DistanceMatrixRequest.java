@@ -0,0 +1,19 @@
+package com.javasharks.puntosventaapi.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO para solicitar la matriz de costos mínimos entre un conjunto de orígenes y uno de destinos.
+ */
+public record DistanceMatrixRequest(
+        @NotEmpty(message = "Debe indicar al menos un origen")
+        List<Long> origenes,
+
+        @NotEmpty(message = "Debe indicar al menos un destino")
+        List<Long> destinos,
+
+        boolean incluirSiguienteSalto
+) {
+}
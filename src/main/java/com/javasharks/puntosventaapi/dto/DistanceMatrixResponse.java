@@ -0,0 +1,16 @@
+package com.javasharks.puntosventaapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO con la matriz de costos mínimos.
+ * {@code costos[i][j]} es el costo de {@code origenes[i]} a {@code destinos[j]} ({@code null} si es inalcanzable),
+ * y {@code siguientesSaltos[i][j]} el primer punto de venta del camino, si se pidió.
+ */
+public record DistanceMatrixResponse(
+    List<Long> origenes,
+    List<Long> destinos,
+    Double[][] costos,
+    Long[][] siguientesSaltos
+) {
+}
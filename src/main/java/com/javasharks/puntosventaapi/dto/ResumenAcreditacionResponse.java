@@ -0,0 +1,28 @@
+package com.javasharks.puntosventaapi.dto;
+
+import com.javasharks.puntosventaapi.model.AccreditationSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO con los totales de acreditaciones de un punto de venta. Sin acreditaciones, la cantidad y el
+ * total son cero y el resto de los campos es {@code null}.
+ */
+public record ResumenAcreditacionResponse(
+        Long puntoVentaId,
+        long cantidad,
+        BigDecimal total,
+        BigDecimal importeMinimo,
+        BigDecimal importeMaximo,
+        LocalDateTime ultimaAcreditacion
+) {
+    public static ResumenAcreditacionResponse of(AccreditationSummary summary) {
+        return new ResumenAcreditacionResponse(summary.getSellingPointId(), summary.getCount(),
+                summary.getTotal(), summary.getMinAmount(), summary.getMaxAmount(), summary.getLastCreatedAt());
+    }
+
+    public static ResumenAcreditacionResponse empty(Long puntoVentaId) {
+        return new ResumenAcreditacionResponse(puntoVentaId, 0, BigDecimal.ZERO, null, null, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.javasharks.puntosventaapi.dto;
+
+import com.javasharks.puntosventaapi.ingestion.RollupGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO con la serie de acreditaciones de un punto de venta. Solo figuran los intervalos con
+ * acreditaciones, ordenados por inicio.
+ */
+public record SerieAcreditacionResponse(
+        Long puntoVentaId,
+        RollupGranularity granularidad,
+        List<Intervalo> intervalos
+) {
+    public record Intervalo(LocalDateTime inicio, long cantidad, BigDecimal total) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.javasharks.puntosventaapi.event;
+
+/**
+ * Evento local publicado cuando otra instancia modificó el grafo de costos.
+ *
+ * @param idA     extremo de la arista modificada, o {@code null} si se recargó el grafo completo
+ * @param idB     otro extremo de la arista, o {@code null} si se recargó el grafo completo
+ * @param costo   nuevo costo, o {@code null} si la arista se eliminó
+ * @param version versión del grafo tras el cambio
+ */
+public record ChargeChangedEvent(Long idA, Long idB, Double costo, long version) {
+}
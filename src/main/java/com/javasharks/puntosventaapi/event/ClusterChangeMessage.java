@@ -0,0 +1,27 @@
+package com.javasharks.puntosventaapi.event;
+
+import java.util.List;
+
+/**
+ * Aviso de cambio que se difunde a todas las instancias por el canal de Redis.
+ *
+ * @param kind       tipo de cambio
+ * @param ids        puntos de venta involucrados: los dos extremos de una arista, o el punto modificado;
+ *                   vacío si cambiaron todos
+ * @param costo      nuevo costo de la arista, o {@code null} si se eliminó o no aplica
+ * @param version    versión del grafo tras el cambio, o {@code null} si no afecta al grafo
+ * @param instanceId instancia que originó el cambio, para ignorar los avisos propios
+ */
+public record ClusterChangeMessage(
+    Kind kind,
+    List<Long> ids,
+    Double costo,
+    Long version,
+    String instanceId
+) {
+    public enum Kind {
+        CHARGE_CHANGED,
+        GRAPH_RELOADED,
+        SELLING_POINT_CHANGED
+    }
+}
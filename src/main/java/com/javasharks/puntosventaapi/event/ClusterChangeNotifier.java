@@ -0,0 +1,123 @@
+package com.javasharks.puntosventaapi.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javasharks.puntosventaapi.storage.StorageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Difunde los cambios de esta instancia por un canal pub/sub de Redis y traduce los avisos
+ * de las demás instancias a eventos locales ({@link ChargeChangedEvent}, {@link SellingPointChangedEvent}).
+ * <p>
+ * Pub/sub no garantiza la entrega: un aviso perdido solo demora la actualización, porque cada
+ * lectura del grafo compara igualmente la versión local con {@code costo:version}.
+ * <p>
+ * Con {@code app.storage.type=memory} cada instancia tiene su propio estado, así que no hay
+ * nada que difundir y los avisos quedan desactivados.
+ */
+@Component
+public class ClusterChangeNotifier implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterChangeNotifier.class);
+
+    // Identifica a esta instancia (cada contexto de aplicación tiene el suyo)
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String channel;
+
+    public ClusterChangeNotifier(RedisTemplate<String, Object> redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.cluster.events.enabled:true}") boolean enabled,
+                                 @Value("${app.cluster.events.channel:puntos-venta:cambios}") String channel,
+                                 @Value("${app.storage.type:redis}") StorageType storageType) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled && storageType == StorageType.REDIS;
+        this.channel = channel;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    /**
+     * Avisa que cambió (o se eliminó, con {@code costo == null}) la arista {@code idA <-> idB}.
+     */
+    public void chargeChanged(Long idA, Long idB, Double costo, long version) {
+        publish(new ClusterChangeMessage(ClusterChangeMessage.Kind.CHARGE_CHANGED,
+                List.of(idA, idB), costo, version, instanceId));
+    }
+
+    /**
+     * Avisa que el grafo se reemplazó completo (por ejemplo, en la inicialización).
+     */
+    public void graphReloaded(long version) {
+        publish(new ClusterChangeMessage(ClusterChangeMessage.Kind.GRAPH_RELOADED,
+                List.of(), null, version, instanceId));
+    }
+
+    /**
+     * Avisa que cambió un punto de venta, o todos si {@code id == null}.
+     */
+    public void sellingPointChanged(Long id) {
+        publish(new ClusterChangeMessage(ClusterChangeMessage.Kind.SELLING_POINT_CHANGED,
+                id == null ? List.of() : List.of(id), null, null, instanceId));
+    }
+
+    /**
+     * La escritura en Redis ya se hizo: si el aviso falla, solo se registra.
+     */
+    private void publish(ClusterChangeMessage message) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(message);
+            byte[] topic = channel.getBytes(StandardCharsets.UTF_8);
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(topic, payload));
+        } catch (Exception e) {
+            log.warn("No se pudo difundir el cambio {}: {}", message, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ClusterChangeMessage change;
+        try {
+            change = objectMapper.readValue(message.getBody(), ClusterChangeMessage.class);
+        } catch (IOException e) {
+            log.warn("Aviso de cambio ilegible en {}: {}", channel, e.getMessage());
+            return;
+        }
+        if (instanceId.equals(change.instanceId())) {
+            return;
+        }
+
+        log.debug("Aviso de cambio recibido: {}", change);
+        switch (change.kind()) {
+            case CHARGE_CHANGED -> eventPublisher.publishEvent(new ChargeChangedEvent(
+                    change.ids().get(0), change.ids().get(1), change.costo(), change.version()));
+            case GRAPH_RELOADED -> eventPublisher.publishEvent(new ChargeChangedEvent(
+                    null, null, null, change.version()));
+            case SELLING_POINT_CHANGED -> eventPublisher.publishEvent(new SellingPointChangedEvent(
+                    change.ids().isEmpty() ? null : change.ids().get(0)));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.javasharks.puntosventaapi.event;
+
+/**
+ * Evento local publicado cuando un punto de venta se modifica o elimina.
+ * Permite invalidar estructuras en memoria que guardan datos del punto (por ejemplo, nombres en caminos cacheados).
+ *
+ * @param id ID del punto de venta, o {@code null} si cambiaron todos (reinicialización)
+ */
+public record SellingPointChangedEvent(Long id) {
+}
@@ -0,0 +1,12 @@
+package com.javasharks.puntosventaapi.exception;
+
+/**
+ * El servicio no puede aceptar más trabajo por ahora (por ejemplo, la cola de ingesta está llena).
+ * Se responde con 503 y {@code Retry-After}.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.javasharks.puntosventaapi.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exportación ya validada, que lee y escribe las filas recién al invocar {@link #writeTo(OutputStream)}.
+ */
+@FunctionalInterface
+public interface AccreditationExport {
+
+    /**
+     * Escribe todas las filas en {@code out}. No cierra el stream.
+     *
+     * @return cantidad de filas escritas
+     */
+    long writeTo(OutputStream out) throws IOException;
+}
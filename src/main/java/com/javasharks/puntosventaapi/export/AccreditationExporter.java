@@ -0,0 +1,220 @@
+package com.javasharks.puntosventaapi.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exporta acreditaciones leyéndolas con un cursor del servidor y escribiéndolas fila por fila.
+ * <p>
+ * PostgreSQL solo usa cursor (en lugar de traer todo el resultado) si la conexión no está en
+ * autocommit y la sentencia tiene fetch size, por eso la lectura corre dentro de una transacción
+ * de solo lectura con {@code app.acreditaciones.export.fetch-size}. Así la memoria usada no
+ * depende de la cantidad de filas: como mucho un bloque de filas y el buffer de salida.
+ */
+@Component
+public class AccreditationExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccreditationExporter.class);
+
+    private static final String SELECT_SQL = """
+            SELECT id, amount, selling_point_id, nm_selling_point, created_at
+            FROM acreditaciones
+            """;
+    private static final String CSV_HEADER = "id,importe,puntoVentaId,nombrePuntoVenta,fechaRecepcion";
+    // Cada cuántas filas se vacía el buffer hacia el cliente
+    private static final int FLUSH_EVERY = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AccreditationExporter(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.acreditaciones.export.fetch-size:1000}") int fetchSize) {
+        // Template propio: el fetch size aplica a todas sus consultas y no debe afectar al resto
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Prepara la exportación de las acreditaciones que cumplen los filtros (todos opcionales),
+     * ordenadas por ID.
+     *
+     * @param desde inicio del rango de fecha de recepción, inclusive
+     * @param hasta fin del rango de fecha de recepción, exclusive
+     */
+    public AccreditationExport export(ExportFormat format, LocalDateTime desde, LocalDateTime hasta,
+                                      Long puntoVentaId) {
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a 'hasta'");
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (desde != null) {
+            conditions.add("created_at >= ?");
+            args.add(Timestamp.valueOf(desde));
+        }
+        if (hasta != null) {
+            conditions.add("created_at < ?");
+            args.add(Timestamp.valueOf(hasta));
+        }
+        if (puntoVentaId != null) {
+            conditions.add("selling_point_id = ?");
+            args.add(puntoVentaId);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
+        }
+        sql.append("ORDER BY id");
+
+        return out -> {
+            RowSink sink = format == ExportFormat.CSV ? new CsvSink(out) : new NdjsonSink(out);
+            long rows = stream(sql.toString(), args.toArray(), sink);
+            log.debug("Exportación {} terminada: {} acreditaciones", format, rows);
+            return rows;
+        };
+    }
+
+    private long stream(String sql, Object[] args, RowSink sink) throws IOException {
+        long[] rows = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql, rs -> {
+                try {
+                    sink.write(rs);
+                    if (++rows[0] % FLUSH_EVERY == 0) {
+                        sink.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args));
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la conexión: la transacción ya se cerró y el cursor con ella
+            throw e.getCause();
+        }
+        sink.finish();
+        return rows[0];
+    }
+
+    private interface RowSink {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Un objeto por línea con los mismos campos que {@code AcreditacionResponse}.
+     */
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong(1));
+            generator.writeNumberField("importe", rs.getBigDecimal(2));
+            generator.writeNumberField("puntoVentaId", rs.getLong(3));
+            generator.writeStringField("nombrePuntoVenta", rs.getString(4));
+            generator.writeStringField("fechaRecepcion", formatDate(rs.getTimestamp(5)));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+
+        CsvSink(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write(CSV_HEADER);
+            this.writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writer.write(rs.getBigDecimal(2).toPlainString());
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(3)));
+            writer.write(',');
+            writer.write(quote(rs.getString(4)));
+            writer.write(',');
+            writer.write(formatDate(rs.getTimestamp(5)));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * Comillas según RFC 4180 solo cuando el valor lo necesita.
+         */
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String formatDate(Timestamp timestamp) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp.toLocalDateTime());
+    }
+}
@@ -0,0 +1,31 @@
+package com.javasharks.puntosventaapi.export;
+
+/**
+ * Formatos de exportación de acreditaciones.
+ */
+public enum ExportFormat {
+    /**
+     * Un objeto JSON por línea.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * CSV con cabecera, separado por comas.
+     */
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -0,0 +1,147 @@
+package com.javasharks.puntosventaapi.graph;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene la {@link AllPairsTable} del grafo de costos.
+ * <p>
+ * Todo el mantenimiento (construcción completa y reparaciones incrementales) corre en un único
+ * hilo, en el orden en que llegan los cambios, y la tabla se publica de forma atómica.
+ * Mientras la tabla no corresponde al snapshot vigente del grafo, {@link #tableFor(CostGraph)}
+ * devuelve {@code null} y las consultas usan Dijkstra.
+ */
+@Component
+public class AllPairsShortestPaths {
+
+    private static final Logger log = LoggerFactory.getLogger(AllPairsShortestPaths.class);
+
+    private final boolean enabled;
+    private final int maxNodes;
+    private final AtomicReference<AllPairsTable> table = new AtomicReference<>();
+    // Último grafo enviado a mantenimiento; las tareas de grafos más viejos se descartan
+    private final AtomicReference<CostGraph> latest = new AtomicReference<>(CostGraph.empty());
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "all-pairs-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer buildTimer;
+    private final Timer repairTimer;
+    private final DistributionSummary repairedRows;
+
+    public AllPairsShortestPaths(MeterRegistry meterRegistry,
+                                 @Value("${app.graph.all-pairs.enabled:true}") boolean enabled,
+                                 @Value("${app.graph.all-pairs.max-nodes:3000}") int maxNodes) {
+        this.enabled = enabled;
+        this.maxNodes = maxNodes;
+        this.buildTimer = Timer.builder("graph.allpairs.build")
+                .description("Tiempo de construcción completa de la tabla de caminos mínimos")
+                .register(meterRegistry);
+        this.repairTimer = Timer.builder("graph.allpairs.repair")
+                .description("Tiempo de reparación incremental de la tabla tras un cambio de arista")
+                .register(meterRegistry);
+        this.repairedRows = DistributionSummary.builder("graph.allpairs.repair.rows")
+                .description("Filas recalculadas por reparación")
+                .register(meterRegistry);
+        Gauge.builder("graph.allpairs.memory", table, t -> t.get() == null ? 0 : t.get().memoryBytes())
+                .description("Memoria aproximada de la tabla de caminos mínimos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tabla vigente si corresponde exactamente al snapshot dado, o {@code null}.
+     */
+    public AllPairsTable tableFor(CostGraph graph) {
+        AllPairsTable current = table.get();
+        return current != null && current.graph() == graph ? current : null;
+    }
+
+    /**
+     * Programa la construcción completa de la tabla para un grafo nuevo (inicialización o recarga).
+     */
+    public void rebuild(CostGraph graph) {
+        if (!enabled) {
+            return;
+        }
+        latest.set(graph);
+        maintenance.execute(() -> {
+            if (latest.get() == graph) {
+                build(graph);
+            }
+        });
+    }
+
+    /**
+     * Programa la reparación de la tabla tras el cambio de la arista {@code a <-> b}.
+     * Si la tabla no corresponde al grafo anterior, se reconstruye completa.
+     */
+    public void edgeChanged(CostGraph previous, CostGraph updated, long a, long b) {
+        if (!enabled) {
+            return;
+        }
+        latest.set(updated);
+        maintenance.execute(() -> {
+            if (latest.get() != updated) {
+                return;
+            }
+            AllPairsTable current = table.get();
+            if (current == null || current.graph() != previous
+                    || previous.nodeCount() != updated.nodeCount()) {
+                build(updated);
+                return;
+            }
+            repair(current, updated, a, b);
+        });
+    }
+
+    private void build(CostGraph graph) {
+        if (graph.nodeCount() > maxNodes) {
+            table.set(null);
+            log.warn("Tabla de caminos mínimos deshabilitada: {} nodos supera el máximo de {}",
+                    graph.nodeCount(), maxNodes);
+            return;
+        }
+        AllPairsTable built = buildTimer.record(() -> AllPairsTable.build(graph));
+        table.set(built);
+        log.info("Tabla de caminos mínimos construida: {} nodos, {} bytes",
+                graph.nodeCount(), built.memoryBytes());
+    }
+
+    private void repair(AllPairsTable current, CostGraph updated, long a, long b) {
+        CostGraph previous = current.graph();
+        int u = updated.indexOf(a);
+        int v = updated.indexOf(b);
+        double oldCost = previous.edgeWeight(u, v);
+        double newCost = updated.edgeWeight(u, v);
+
+        AllPairsTable.Repair repair = repairTimer.record(() -> {
+            if (Double.isNaN(newCost) || newCost > oldCost) {
+                return current.withEdgeIncreased(updated, u, v, oldCost);
+            }
+            // Arista nueva (oldCost NaN) o con costo menor o igual
+            return current.withEdgeDecreased(updated, u, v, newCost);
+        });
+        table.set(repair.table());
+        repairedRows.record(repair.rows());
+        log.debug("Tabla de caminos mínimos reparada para {} <-> {}: {} filas", a, b, repair.rows());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenance.shutdownNow();
+    }
+}
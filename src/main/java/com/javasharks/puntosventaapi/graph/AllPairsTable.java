@@ -0,0 +1,214 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tabla de caminos mínimos entre todos los pares de nodos de un {@link CostGraph}.
+ * <p>
+ * Para cada origen {@code s} guarda la distancia a cada destino y el primer salto del camino,
+ * de modo que una consulta es una lectura más el desenrollado del camino salto a salto.
+ * <p>
+ * Las filas nunca se modifican una vez publicadas: las reparaciones copian solo las filas
+ * afectadas y comparten el resto con la tabla anterior.
+ */
+public final class AllPairsTable {
+
+    // Tolerancia relativa para comparar sumas de costos en punto flotante: el error de redondeo
+    // de una distancia crece con su magnitud, así que una cota absoluta no sirve con costos grandes
+    private static final double EPSILON = 1e-9;
+
+    private final CostGraph graph;
+    private final double[][] distances;
+    private final int[][] nextHops;
+
+    private AllPairsTable(CostGraph graph, double[][] distances, int[][] nextHops) {
+        this.graph = graph;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Construye la tabla completa ejecutando Dijkstra desde cada nodo.
+     */
+    public static AllPairsTable build(CostGraph graph) {
+        int n = graph.nodeCount();
+        double[][] distances = new double[n][];
+        int[][] nextHops = new int[n][];
+        for (int source = 0; source < n; source++) {
+            distances[source] = new double[n];
+            nextHops[source] = new int[n];
+            singleSource(graph, source, distances[source], nextHops[source]);
+        }
+        return new AllPairsTable(graph, distances, nextHops);
+    }
+
+    /**
+     * Grafo sobre el que se calculó la tabla.
+     */
+    public CostGraph graph() {
+        return graph;
+    }
+
+    public double distance(int source, int target) {
+        return distances[source][target];
+    }
+
+    /**
+     * Primer salto del camino mínimo, el propio origen si coincide con el destino, o {@code -1} si no hay camino.
+     */
+    public int nextHop(int source, int target) {
+        return nextHops[source][target];
+    }
+
+    /**
+     * Desenrolla el camino mínimo como lista de IDs.
+     *
+     * @return el camino, o {@code null} si no se pudo reconstruir (por ejemplo,
+     *         por un ciclo de aristas de costo cero entre primeros saltos empatados)
+     */
+    public List<Long> path(int source, int target) {
+        List<Long> path = new ArrayList<>();
+        path.add(graph.idAt(source));
+        int current = source;
+        while (current != target) {
+            current = nextHops[current][target];
+            if (current < 0 || path.size() > graph.nodeCount()) {
+                return null;
+            }
+            path.add(graph.idAt(current));
+        }
+        return path;
+    }
+
+    /**
+     * Memoria aproximada ocupada por las filas de la tabla, en bytes.
+     */
+    public long memoryBytes() {
+        long n = graph.nodeCount();
+        return n * n * (Double.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Repara la tabla tras agregar una arista o bajar su costo.
+     * Solo se copian las filas de los orígenes cuyo camino mejora usando la arista {@code u <-> v}.
+     *
+     * @param updated grafo con la arista ya aplicada (mismos nodos que {@link #graph()})
+     * @return la tabla nueva y la cantidad de filas reparadas
+     */
+    public Repair withEdgeDecreased(CostGraph updated, int u, int v, double cost) {
+        int n = graph.nodeCount();
+        double[][] newDistances = distances.clone();
+        int[][] newNextHops = nextHops.clone();
+        double[] fromU = distances[u];
+        double[] fromV = distances[v];
+
+        int rows = 0;
+        for (int s = 0; s < n; s++) {
+            double[] row = distances[s];
+            double viaU = row[u] + cost;
+            double viaV = row[v] + cost;
+            if (!improves(viaU, row[v]) && !improves(viaV, row[u])) {
+                continue;
+            }
+
+            double[] newRow = row.clone();
+            int[] newHops = nextHops[s].clone();
+            int hopToU = s == u ? v : nextHops[s][u];
+            int hopToV = s == v ? u : nextHops[s][v];
+            for (int t = 0; t < n; t++) {
+                if (improves(viaU + fromV[t], newRow[t])) {
+                    newRow[t] = viaU + fromV[t];
+                    newHops[t] = hopToU;
+                }
+                if (improves(viaV + fromU[t], newRow[t])) {
+                    newRow[t] = viaV + fromU[t];
+                    newHops[t] = hopToV;
+                }
+            }
+            newDistances[s] = newRow;
+            newNextHops[s] = newHops;
+            rows++;
+        }
+        return new Repair(new AllPairsTable(updated, newDistances, newNextHops), rows);
+    }
+
+    /**
+     * Repara la tabla tras quitar una arista o subir su costo.
+     * Solo se recalculan (con Dijkstra sobre el grafo nuevo) los orígenes para los que
+     * la arista {@code u <-> v} era ajustada, es decir, podía formar parte de un camino mínimo.
+     * Ante la duda (diferencias dentro de la tolerancia) la fila se recalcula.
+     *
+     * @param updated  grafo con el cambio ya aplicado (mismos nodos que {@link #graph()})
+     * @param oldCost  costo que tenía la arista antes del cambio
+     * @return la tabla nueva y la cantidad de filas recalculadas
+     */
+    public Repair withEdgeIncreased(CostGraph updated, int u, int v, double oldCost) {
+        int n = graph.nodeCount();
+        double[][] newDistances = distances.clone();
+        int[][] newNextHops = nextHops.clone();
+
+        int rows = 0;
+        for (int s = 0; s < n; s++) {
+            double[] row = distances[s];
+            if (row[u] == Double.POSITIVE_INFINITY
+                    || Math.abs(row[u] - row[v]) < oldCost - tolerance(Math.max(row[u], row[v]))) {
+                continue;
+            }
+            newDistances[s] = new double[n];
+            newNextHops[s] = new int[n];
+            singleSource(updated, s, newDistances[s], newNextHops[s]);
+            rows++;
+        }
+        return new Repair(new AllPairsTable(updated, newDistances, newNextHops), rows);
+    }
+
+    /**
+     * {@code true} si {@code candidate} es menor que {@code current} por más que la tolerancia.
+     */
+    private static boolean improves(double candidate, double current) {
+        if (current == Double.POSITIVE_INFINITY) {
+            return candidate < current;
+        }
+        return candidate < current - tolerance(current);
+    }
+
+    private static double tolerance(double magnitude) {
+        return EPSILON * Math.max(1.0, Math.abs(magnitude));
+    }
+
+    /**
+     * Dijkstra de un origen a todos los nodos, registrando el primer salto hacia cada destino.
+     */
+    private static void singleSource(CostGraph graph, int source, double[] distances, int[] nextHops) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(nextHops, -1);
+
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            IndexedMinHeap queue = lease.prepare(SearchScratch.FORWARD, graph.nodeCount()).heap;
+            distances[source] = 0.0;
+            nextHops[source] = source;
+            queue.offer(source, 0.0);
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                    int adjacent = graph.target(e);
+                    double newDistance = distances[node] + graph.weight(e);
+                    if (newDistance < distances[adjacent]) {
+                        distances[adjacent] = newDistance;
+                        nextHops[adjacent] = node == source ? adjacent : nextHops[node];
+                        queue.offer(adjacent, newDistance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resultado de una reparación incremental.
+     */
+    public record Repair(AllPairsTable table, int rows) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Componentes conexos de un {@link CostGraph}, calculados con union-find.
+ * <p>
+ * Es inmutable y persistente: los arreglos de padres y de tamaños están partidos en bloques de
+ * {@value #CHUNK} posiciones, y agregar una arista ({@link #withEdge(CostGraph, int, int)})
+ * cuelga la raíz del conjunto más chico de la del más grande copiando solo el bloque tocado de
+ * cada arreglo y la tabla de bloques ({@code n / }{@value #CHUNK} referencias). El resto se
+ * comparte con la versión anterior, así que una escritura no cuesta O(n).
+ * <p>
+ * El precio es que sin compresión de caminos {@link #connected(int, int)} recorre hasta la
+ * raíz: con unión por tamaño la profundidad es O(log n). Tras {@link #build(CostGraph)} todos los
+ * nodos apuntan directo a su raíz. Quitar una arista puede partir un componente, así que en ese
+ * caso hay que reconstruir con {@link #build(CostGraph)}.
+ */
+public final class ConnectivityIndex {
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK - 1;
+
+    private final CostGraph graph;
+    private final int nodes;
+    // Padre de cada nodo, por bloques; la raíz es su propio padre
+    private final int[][] parents;
+    // Tamaño del componente, indexado por raíz, por bloques
+    private final int[][] sizes;
+
+    private ConnectivityIndex(CostGraph graph, int nodes, int[][] parents, int[][] sizes) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.parents = parents;
+        this.sizes = sizes;
+    }
+
+    public static ConnectivityIndex build(CostGraph graph) {
+        int n = graph.nodeCount();
+        int[] parents = new int[n];
+        int[] sizes = new int[n];
+        for (int v = 0; v < n; v++) {
+            parents[v] = v;
+            sizes[v] = 1;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                union(parents, sizes, v, graph.target(e));
+            }
+        }
+        // Todos directo a la raíz: las consultas sobre el índice recién construido son O(1)
+        for (int v = 0; v < n; v++) {
+            parents[v] = compressingFind(parents, v);
+        }
+        return new ConnectivityIndex(graph, n, chunked(parents), chunked(sizes));
+    }
+
+    /**
+     * Índice para {@code updated}, que es el grafo actual más la arista {@code u <-> v}
+     * (con los mismos nodos).
+     */
+    public ConnectivityIndex withEdge(CostGraph updated, int u, int v) {
+        int rootU = root(u);
+        int rootV = root(v);
+        if (rootU == rootV) {
+            return new ConnectivityIndex(updated, nodes, parents, sizes);
+        }
+        // Unión por tamaño: el árbol más chico cuelga del más grande
+        if (get(sizes, rootU) < get(sizes, rootV)) {
+            int swap = rootU;
+            rootU = rootV;
+            rootV = swap;
+        }
+        int[][] newParents = set(parents, rootV, rootU);
+        int[][] newSizes = set(sizes, rootU, get(sizes, rootU) + get(sizes, rootV));
+        return new ConnectivityIndex(updated, nodes, newParents, newSizes);
+    }
+
+    /**
+     * Grafo sobre el que se calcularon los componentes.
+     */
+    public CostGraph graph() {
+        return graph;
+    }
+
+    public boolean connected(int u, int v) {
+        return root(u) == root(v);
+    }
+
+    /**
+     * Componentes como listas de IDs, de mayor a menor tamaño.
+     */
+    public List<List<Long>> components() {
+        List<List<Long>> byRoot = new ArrayList<>(nodes);
+        for (int v = 0; v < nodes; v++) {
+            byRoot.add(null);
+        }
+        List<List<Long>> components = new ArrayList<>();
+        for (int v = 0; v < nodes; v++) {
+            int root = root(v);
+            List<Long> component = byRoot.get(root);
+            if (component == null) {
+                component = new ArrayList<>(get(sizes, root));
+                byRoot.set(root, component);
+                components.add(component);
+            }
+            component.add(graph.idAt(v));
+        }
+        components.sort(Comparator.comparingInt((List<Long> c) -> c.size()).reversed());
+        return components;
+    }
+
+    private int root(int v) {
+        int parent = get(parents, v);
+        while (parent != v) {
+            v = parent;
+            parent = get(parents, v);
+        }
+        return v;
+    }
+
+    private static int get(int[][] chunks, int index) {
+        return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+    }
+
+    /**
+     * Copia de {@code chunks} con {@code chunks[index] = value}: solo se copian la tabla de
+     * bloques y el bloque que contiene la posición.
+     */
+    private static int[][] set(int[][] chunks, int index, int value) {
+        int[][] copy = chunks.clone();
+        int[] chunk = copy[index >>> CHUNK_BITS].clone();
+        chunk[index & CHUNK_MASK] = value;
+        copy[index >>> CHUNK_BITS] = chunk;
+        return copy;
+    }
+
+    private static int[][] chunked(int[] values) {
+        int[][] chunks = new int[(values.length + CHUNK - 1) >>> CHUNK_BITS][];
+        for (int c = 0; c < chunks.length; c++) {
+            int from = c << CHUNK_BITS;
+            chunks[c] = new int[CHUNK];
+            System.arraycopy(values, from, chunks[c], 0, Math.min(CHUNK, values.length - from));
+        }
+        return chunks;
+    }
+
+    private static void union(int[] parents, int[] sizes, int u, int v) {
+        int rootU = compressingFind(parents, u);
+        int rootV = compressingFind(parents, v);
+        if (rootU == rootV) {
+            return;
+        }
+        if (sizes[rootU] < sizes[rootV]) {
+            int swap = rootU;
+            rootU = rootV;
+            rootV = swap;
+        }
+        parents[rootV] = rootU;
+        sizes[rootU] += sizes[rootV];
+    }
+
+    private static int compressingFind(int[] parents, int v) {
+        while (parents[v] != v) {
+            parents[v] = parents[parents[v]];
+            v = parents[v];
+        }
+        return v;
+    }
+}
@@ -0,0 +1,224 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Snapshot inmutable del grafo de costos en formato CSR (compressed sparse row).
+ * <p>
+ * Los IDs de puntos de venta se mapean a índices densos {@code 0..n-1} (ordenados por ID),
+ * y las adyacencias de cada nodo {@code i} ocupan el rango {@code [offsets[i], offsets[i+1])}
+ * de los arreglos {@code targets} y {@code weights}. Cada arista no dirigida se guarda en ambos sentidos.
+ * <p>
+ * Al ser inmutable puede publicarse mediante una referencia atómica: los lectores nunca
+ * ven un grafo a medio construir. Las modificaciones devuelven un snapshot nuevo.
+ * <p>
+ * La versión corresponde al contador {@code costo:version} de Redis al momento de construir
+ * el snapshot, y permite detectar si quedó desactualizado.
+ */
+public final class CostGraph {
+
+    private static final CostGraph EMPTY = new CostGraph(0L, new long[0], new int[1], new int[0], new double[0]);
+
+    private final long version;
+    private final long[] ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    private CostGraph(long version, long[] ids, int[] offsets, int[] targets, double[] weights) {
+        this.version = version;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public static CostGraph empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Construye el grafo a partir de la representación de adyacencias usada en Redis
+     * ({@code nodo -> (vecino -> costo)}).
+     */
+    public static CostGraph fromAdjacency(Map<Long, Map<Long, Double>> adjacency) {
+        int entries = adjacency.values().stream().mapToInt(Map::size).sum();
+        long[] from = new long[entries];
+        long[] to = new long[entries];
+        double[] cost = new double[entries];
+
+        int m = 0;
+        for (Map.Entry<Long, Map<Long, Double>> node : adjacency.entrySet()) {
+            for (Map.Entry<Long, Double> adjacent : node.getValue().entrySet()) {
+                from[m] = node.getKey();
+                to[m] = adjacent.getKey();
+                cost[m] = adjacent.getValue();
+                m++;
+            }
+        }
+
+        return fromEdges(from, to, cost, m);
+    }
+
+    /**
+     * Construye el grafo a partir de las primeras {@code m} entradas dirigidas
+     * {@code from[i] -> to[i]} con costo {@code cost[i]}; cada arista no dirigida debe
+     * figurar en ambos sentidos.
+     */
+    public static CostGraph fromEdges(long[] from, long[] to, double[] cost, int m) {
+        long[] nodeIds = distinctSorted(from, to, m);
+        return build(0L, nodeIds, from, to, cost, m);
+    }
+
+    /**
+     * Devuelve un snapshot nuevo con la arista {@code a <-> b} agregada o actualizada.
+     */
+    public CostGraph withEdge(long a, long b, double cost) {
+        return patch(a, b, cost, true);
+    }
+
+    /**
+     * Devuelve un snapshot nuevo sin la arista {@code a <-> b}.
+     * Los nodos que quedan aislados se conservan.
+     */
+    public CostGraph withoutEdge(long a, long b) {
+        return patch(a, b, 0.0, false);
+    }
+
+    /**
+     * Devuelve el mismo grafo marcado con otra versión (comparte los arreglos internos).
+     */
+    public CostGraph withVersion(long newVersion) {
+        return new CostGraph(newVersion, ids, offsets, targets, weights);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Cantidad de aristas no dirigidas.
+     */
+    public int edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Índice denso del punto de venta, o {@code -1} si no participa del grafo.
+     */
+    public int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Primera posición de las adyacencias del nodo en {@link #target(int)}/{@link #weight(int)}.
+     */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Posición siguiente a la última adyacencia del nodo.
+     */
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Costo de la arista directa entre dos nodos, o {@code NaN} si no están conectados.
+     */
+    public double edgeWeight(int from, int to) {
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to) {
+                return weights[e];
+            }
+        }
+        return Double.NaN;
+    }
+
+    private CostGraph patch(long a, long b, double cost, boolean add) {
+        int entries = targets.length + (add ? 2 : 0);
+        long[] from = new long[entries];
+        long[] to = new long[entries];
+        double[] newCost = new double[entries];
+
+        int m = 0;
+        for (int node = 0; node < ids.length; node++) {
+            long nodeId = ids[node];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                long adjacentId = ids[targets[e]];
+                if ((nodeId == a && adjacentId == b) || (nodeId == b && adjacentId == a)) {
+                    continue;
+                }
+                from[m] = nodeId;
+                to[m] = adjacentId;
+                newCost[m] = weights[e];
+                m++;
+            }
+        }
+
+        if (add) {
+            from[m] = a;
+            to[m] = b;
+            newCost[m++] = cost;
+            from[m] = b;
+            to[m] = a;
+            newCost[m++] = cost;
+        }
+
+        long[] nodeIds = ids;
+        if (add && (indexOf(a) < 0 || indexOf(b) < 0)) {
+            nodeIds = distinctSorted(from, to, m);
+        }
+        return build(version, nodeIds, from, to, newCost, m);
+    }
+
+    private static CostGraph build(long version, long[] nodeIds, long[] from, long[] to, double[] cost, int m) {
+        int n = nodeIds.length;
+        int[] offsets = new int[n + 1];
+        int[] source = new int[m];
+        for (int i = 0; i < m; i++) {
+            source[i] = Arrays.binarySearch(nodeIds, from[i]);
+            offsets[source[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int position = next[source[i]]++;
+            targets[position] = Arrays.binarySearch(nodeIds, to[i]);
+            weights[position] = cost[i];
+        }
+
+        return new CostGraph(version, nodeIds, offsets, targets, weights);
+    }
+
+    private static long[] distinctSorted(long[] from, long[] to, int m) {
+        long[] all = new long[m * 2];
+        System.arraycopy(from, 0, all, 0, m);
+        System.arraycopy(to, 0, all, m, m);
+        return Arrays.stream(all).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,91 @@
+package com.javasharks.puntosventaapi.graph;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantiene el {@link ConnectivityIndex} del grafo de costos.
+ * <p>
+ * Agregar una arista entre nodos existentes actualiza el índice con una unión. Cualquier otro
+ * cambio (eliminar una arista, una arista con nodos nuevos, una recarga completa) lo invalida, y
+ * se reconstruye de forma perezosa en la primera consulta que lo necesite.
+ */
+@Component
+public class GraphConnectivity {
+
+    private static final Logger log = LoggerFactory.getLogger(GraphConnectivity.class);
+
+    private final AtomicReference<ConnectivityIndex> index = new AtomicReference<>();
+    // Evita que varias consultas reconstruyan el mismo índice a la vez
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Timer buildTimer;
+
+    public GraphConnectivity(MeterRegistry meterRegistry) {
+        this.buildTimer = Timer.builder("graph.connectivity.build")
+                .description("Tiempo de reconstrucción del índice de componentes conexos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Índice para el snapshot dado, reconstruyéndolo si no corresponde.
+     */
+    public ConnectivityIndex indexFor(CostGraph graph) {
+        ConnectivityIndex current = index.get();
+        if (current != null && current.graph() == graph) {
+            return current;
+        }
+
+        rebuildLock.lock();
+        try {
+            current = index.get();
+            if (current != null && current.graph() == graph) {
+                return current;
+            }
+            ConnectivityIndex built = buildTimer.record(() -> ConnectivityIndex.build(graph));
+            index.set(built);
+            log.debug("Índice de componentes reconstruido sobre {} nodos", graph.nodeCount());
+            return built;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Indica si dos puntos de venta están en el mismo componente del snapshot dado.
+     * Los puntos que no forman parte del grafo no están conectados con ningún otro.
+     */
+    public boolean connected(CostGraph graph, long a, long b) {
+        int u = graph.indexOf(a);
+        int v = graph.indexOf(b);
+        return u >= 0 && v >= 0 && indexFor(graph).connected(u, v);
+    }
+
+    /**
+     * Actualiza el índice tras el cambio de la arista {@code a <-> b}.
+     */
+    public void edgeChanged(CostGraph previous, CostGraph updated, long a, long b) {
+        ConnectivityIndex current = index.get();
+        int u = updated.indexOf(a);
+        int v = updated.indexOf(b);
+        boolean inserted = u >= 0 && v >= 0 && !Double.isNaN(updated.edgeWeight(u, v));
+        if (current != null && current.graph() == previous && inserted
+                && previous.nodeCount() == updated.nodeCount()) {
+            index.set(current.withEdge(updated, u, v));
+        } else {
+            index.set(null);
+        }
+    }
+
+    /**
+     * Descarta el índice ante un snapshot completamente nuevo (inicialización o recarga).
+     */
+    public void graphChanged(CostGraph graph) {
+        index.set(null);
+    }
+}
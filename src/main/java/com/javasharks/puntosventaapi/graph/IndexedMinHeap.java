@@ -0,0 +1,120 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.Arrays;
+
+/**
+ * Heap binario de mínimos indexado por nodo, sobre arreglos primitivos.
+ * <p>
+ * Cada nodo aparece a lo sumo una vez; {@link #offer(int, double)} inserta o baja la clave
+ * (decrease-key), así que la cola nunca acumula entradas obsoletas y no se crean objetos por
+ * relajación. Pensado para reutilizarse entre búsquedas: {@link #clear()} cuesta O(elementos restantes).
+ */
+final class IndexedMinHeap {
+
+    private int[] heap = new int[0];
+    private double[] keys = new double[0];
+    // Posición de cada nodo en el heap, o -1 si no está
+    private int[] positions = new int[0];
+    private int size;
+
+    void ensureCapacity(int nodes) {
+        if (positions.length < nodes) {
+            heap = new int[nodes];
+            keys = new double[nodes];
+            positions = new int[nodes];
+            Arrays.fill(positions, -1);
+            size = 0;
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clave mínima, sin extraerla.
+     */
+    double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Inserta el nodo con la clave dada, o baja su clave si ya está y la nueva es menor.
+     */
+    void offer(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            position = size++;
+            heap[position] = node;
+            positions[node] = position;
+            keys[node] = key;
+        } else if (key < keys[node]) {
+            keys[node] = key;
+        } else {
+            return;
+        }
+        siftUp(position);
+    }
+
+    /**
+     * Extrae el nodo con menor clave.
+     */
+    int poll() {
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[position] = parentNode;
+            positions[parentNode] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            int childNode = heap[child];
+            if (key <= keys[childNode]) {
+                break;
+            }
+            heap[position] = childNode;
+            positions[childNode] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,119 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.Arrays;
+
+/**
+ * Landmarks para las cotas inferiores ALT de A*, con su distancia precalculada a cada nodo.
+ * <p>
+ * Los landmarks se eligen por el método del punto más lejano: cada uno es el nodo más alejado
+ * de los ya elegidos. Los nodos de otro componente cuentan como infinitamente lejanos, así que
+ * cada componente recibe al menos un landmark mientras alcancen.
+ * <p>
+ * Como el grafo es no dirigido, {@code d(l, v) = d(v, l)} y la cota
+ * {@code max_l |d(l, t) - d(l, v)|} es consistente.
+ */
+public final class LandmarkIndex {
+
+    private final CostGraph graph;
+    private final int[] landmarks;
+    private final double[][] distances;
+
+    private LandmarkIndex(CostGraph graph, int[] landmarks, double[][] distances) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    public static LandmarkIndex build(CostGraph graph, int count) {
+        int n = graph.nodeCount();
+        int k = Math.min(count, n);
+        int[] landmarks = new int[k];
+        double[][] distances = new double[k][];
+
+        // Distancia mínima de cada nodo a los landmarks elegidos hasta ahora
+        double[] closest = new double[n];
+        Arrays.fill(closest, Double.POSITIVE_INFINITY);
+
+        // El primero es el nodo más lejano desde un nodo arbitrario
+        int next = k > 0 ? farthest(distancesFrom(graph, 0), null) : -1;
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            distances[i] = distancesFrom(graph, next);
+            for (int v = 0; v < n; v++) {
+                closest[v] = Math.min(closest[v], distances[i][v]);
+            }
+            next = farthest(closest, landmarks);
+        }
+
+        return new LandmarkIndex(graph, landmarks, distances);
+    }
+
+    /**
+     * Grafo sobre el que se calcularon las distancias.
+     */
+    public CostGraph graph() {
+        return graph;
+    }
+
+    public int size() {
+        return landmarks.length;
+    }
+
+    /**
+     * Cota inferior de la distancia entre {@code node} y {@code target}.
+     * Devuelve {@code +Infinity} si algún landmark demuestra que están en componentes distintos.
+     */
+    public double lowerBound(int node, int target) {
+        double bound = 0.0;
+        for (double[] fromLandmark : distances) {
+            double toTarget = fromLandmark[target];
+            double toNode = fromLandmark[node];
+            if (toTarget == Double.POSITIVE_INFINITY || toNode == Double.POSITIVE_INFINITY) {
+                if (toTarget != toNode) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            bound = Math.max(bound, Math.abs(toTarget - toNode));
+        }
+        return bound;
+    }
+
+    private static int farthest(double[] distances, int[] chosen) {
+        int best = 0;
+        for (int v = 1; v < distances.length; v++) {
+            if (distances[v] > distances[best]) {
+                best = v;
+            }
+        }
+        // Si todos quedaron a distancia 0 (todos elegidos) se repite uno; no afecta la cota
+        if (chosen != null && distances[best] == 0.0) {
+            return chosen[0];
+        }
+        return best;
+    }
+
+    private static double[] distancesFrom(CostGraph graph, int source) {
+        double[] distances = new double[graph.nodeCount()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            IndexedMinHeap queue = lease.prepare(SearchScratch.FORWARD, graph.nodeCount()).heap;
+            distances[source] = 0.0;
+            queue.offer(source, 0.0);
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                    int adjacent = graph.target(e);
+                    double newDistance = distances[node] + graph.weight(e);
+                    if (newDistance < distances[adjacent]) {
+                        distances[adjacent] = newDistance;
+                        queue.offer(adjacent, newDistance);
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+}
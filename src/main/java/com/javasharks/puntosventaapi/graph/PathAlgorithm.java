@@ -0,0 +1,19 @@
+package com.javasharks.puntosventaapi.graph;
+
+/**
+ * Algoritmos disponibles para consultas de camino mínimo entre dos puntos.
+ */
+public enum PathAlgorithm {
+    /**
+     * Dijkstra desde el origen, con corte al asentar el destino.
+     */
+    DIJKSTRA,
+    /**
+     * Dijkstra bidireccional: búsquedas simultáneas desde origen y destino.
+     */
+    BIDIRECTIONAL,
+    /**
+     * A* con cotas inferiores ALT (landmarks y desigualdad triangular).
+     */
+    ALT
+}
@@ -0,0 +1,346 @@
+package com.javasharks.puntosventaapi.graph;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Motor de consultas de camino mínimo entre dos puntos sobre un snapshot {@link CostGraph}.
+ * <p>
+ * Soporta Dijkstra, Dijkstra bidireccional y A* con cotas ALT. Los landmarks de ALT se
+ * recalculan en un hilo propio cada vez que se publica un snapshot nuevo, fuera del lock del
+ * grafo: una escritura no espera las k búsquedas completas. Si cambian varias veces seguidas,
+ * solo se construyen para el último snapshot.
+ * <p>
+ * Mientras tanto se siguen usando los landmarks anteriores si el cambio solo subió o quitó
+ * aristas: las distancias viejas siguen siendo cotas inferiores válidas y consistentes, porque
+ * ningún camino se acortó. Si una arista se agregó o bajó de costo, las cotas viejas podrían
+ * sobrestimar, así que las consultas de ese snapshot usan la búsqueda bidireccional hasta que
+ * se publiquen los landmarks nuevos.
+ * <p>
+ * Los nodos asentados y las aristas examinadas por consulta se publican en
+ * {@code graph.search.settled} y {@code graph.search.relaxed}, con el algoritmo como tag, para
+ * comparar los algoritmos sobre la topología real. Los árboles de un origen a muchos destinos
+ * ({@link #shortestPathTree}) se registran con el tag {@code tree}.
+ */
+@Component
+public class PathQueryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PathQueryEngine.class);
+
+    private final PathAlgorithm defaultAlgorithm;
+    private final int landmarkCount;
+    private final AtomicReference<Landmarks> landmarks = new AtomicReference<>();
+    // Último grafo enviado a construir; las tareas de grafos más viejos se descartan
+    private final AtomicReference<CostGraph> latest = new AtomicReference<>();
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "landmark-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<PathAlgorithm, DistributionSummary> settledByAlgorithm = new EnumMap<>(PathAlgorithm.class);
+    private final Map<PathAlgorithm, DistributionSummary> relaxedByAlgorithm = new EnumMap<>(PathAlgorithm.class);
+    private final DistributionSummary treeSettled;
+    private final DistributionSummary treeRelaxed;
+
+    public PathQueryEngine(MeterRegistry meterRegistry,
+                           @Value("${app.graph.algorithm:ALT}") PathAlgorithm defaultAlgorithm,
+                           @Value("${app.graph.landmarks:8}") int landmarkCount) {
+        this.defaultAlgorithm = defaultAlgorithm;
+        this.landmarkCount = landmarkCount;
+        for (PathAlgorithm algorithm : PathAlgorithm.values()) {
+            settledByAlgorithm.put(algorithm, settledSummary(meterRegistry, algorithm.name().toLowerCase()));
+            relaxedByAlgorithm.put(algorithm, relaxedSummary(meterRegistry, algorithm.name().toLowerCase()));
+        }
+        this.treeSettled = settledSummary(meterRegistry, "tree");
+        this.treeRelaxed = relaxedSummary(meterRegistry, "tree");
+    }
+
+    private static DistributionSummary settledSummary(MeterRegistry meterRegistry, String algorithm) {
+        return DistributionSummary.builder("graph.search.settled")
+                .description("Nodos asentados por consulta de camino mínimo")
+                .tag("algorithm", algorithm)
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary relaxedSummary(MeterRegistry meterRegistry, String algorithm) {
+        return DistributionSummary.builder("graph.search.relaxed")
+                .description("Aristas examinadas por consulta de camino mínimo")
+                .tag("algorithm", algorithm)
+                .register(meterRegistry);
+    }
+
+    public PathAlgorithm defaultAlgorithm() {
+        return defaultAlgorithm;
+    }
+
+    /**
+     * Programa el cálculo de los landmarks para un snapshot nuevo (inicialización o recarga).
+     */
+    public void graphChanged(CostGraph graph) {
+        if (landmarkCount <= 0) {
+            return;
+        }
+        scheduleBuild(graph);
+    }
+
+    /**
+     * Programa el cálculo de los landmarks tras el cambio de la arista {@code a <-> b}. Si el
+     * cambio no acortó ningún camino, los landmarks vigentes pasan a servir también para
+     * {@code updated} hasta que estén los nuevos.
+     */
+    public void edgeChanged(CostGraph previous, CostGraph updated, long a, long b) {
+        if (landmarkCount <= 0) {
+            return;
+        }
+        if (onlyIncreases(previous, updated, a, b)) {
+            landmarks.getAndUpdate(current -> current != null && current.validFor() == previous
+                    ? new Landmarks(current.index(), updated)
+                    : current);
+        }
+        scheduleBuild(updated);
+    }
+
+    /**
+     * {@code true} si hay landmarks que sirven para las consultas ALT sobre {@code graph}.
+     */
+    public boolean landmarksReady(CostGraph graph) {
+        Landmarks current = landmarks.get();
+        return current != null && current.validFor() == graph;
+    }
+
+    /**
+     * {@code true} si {@code updated} tiene los mismos nodos que {@code previous} y la arista
+     * se quitó o subió de costo.
+     */
+    private static boolean onlyIncreases(CostGraph previous, CostGraph updated, long a, long b) {
+        int u = updated.indexOf(a);
+        int v = updated.indexOf(b);
+        if (previous.nodeCount() != updated.nodeCount() || u < 0 || v < 0) {
+            return false;
+        }
+        double oldCost = previous.edgeWeight(u, v);
+        double newCost = updated.edgeWeight(u, v);
+        return Double.isNaN(newCost) || newCost >= oldCost;
+    }
+
+    private void scheduleBuild(CostGraph graph) {
+        latest.set(graph);
+        maintenance.execute(() -> {
+            if (latest.get() != graph) {
+                return;
+            }
+            LandmarkIndex index = LandmarkIndex.build(graph, landmarkCount);
+            // No pisar landmarks que ya sirven para un snapshot posterior
+            landmarks.getAndUpdate(current -> current != null && current.validFor().version() > graph.version()
+                    ? current
+                    : new Landmarks(index, graph));
+            log.debug("Landmarks ALT recalculados: {} sobre {} nodos", index.size(), graph.nodeCount());
+        });
+    }
+
+    /**
+     * Calcula el camino mínimo entre dos puntos con el algoritmo indicado.
+     *
+     * @param algorithm algoritmo a usar, o {@code null} para el configurado por defecto
+     */
+    public PathSearchResult search(CostGraph graph, long origen, long destino, PathAlgorithm algorithm) {
+        int source = graph.indexOf(origen);
+        int target = graph.indexOf(destino);
+        if (source < 0 || target < 0) {
+            return PathSearchResult.unreachable(0, 0);
+        }
+
+        PathAlgorithm selected = algorithm != null ? algorithm : defaultAlgorithm;
+        Landmarks current = landmarks.get();
+        LandmarkIndex index = current != null && current.validFor() == graph ? current.index() : null;
+        if (selected == PathAlgorithm.ALT && index == null) {
+            selected = PathAlgorithm.BIDIRECTIONAL;
+        }
+
+        PathSearchResult result = switch (selected) {
+            case DIJKSTRA -> dijkstra(graph, source, target);
+            case BIDIRECTIONAL -> bidirectional(graph, source, target);
+            case ALT -> aStar(graph, index, source, target);
+        };
+        settledByAlgorithm.get(selected).record(result.settled());
+        relaxedByAlgorithm.get(selected).record(result.relaxed());
+        return result;
+    }
+
+    /**
+     * Árbol de caminos mínimos desde {@code source} hasta asentar todos los {@code targets}
+     * (ver {@link ShortestPathTree#compute}), registrando su costo en las métricas de búsqueda.
+     */
+    public ShortestPathTree shortestPathTree(CostGraph graph, int source, int[] targets) {
+        ShortestPathTree tree = ShortestPathTree.compute(graph, source, targets);
+        treeSettled.record(tree.settled());
+        treeRelaxed.record(tree.relaxed());
+        return tree;
+    }
+
+    /**
+     * Dijkstra desde el origen, con corte al asentar el destino.
+     */
+    private PathSearchResult dijkstra(CostGraph graph, int source, int target) {
+        return aStar(graph, null, source, target);
+    }
+
+    /**
+     * A* guiado por la cota ALT; sin landmarks ({@code index == null}) es Dijkstra.
+     * Con una cota consistente cada nodo se asienta una sola vez, igual que en Dijkstra.
+     * Trabaja sobre buffers prestados y el heap indexado: no crea objetos por relajación.
+     */
+    private PathSearchResult aStar(CostGraph graph, LandmarkIndex index, int source, int target) {
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            return aStar(graph, index, source, target, lease.prepare(SearchScratch.FORWARD, graph.nodeCount()));
+        }
+    }
+
+    private PathSearchResult aStar(CostGraph graph, LandmarkIndex index, int source, int target,
+                                   SearchScratch scratch) {
+        IndexedMinHeap queue = scratch.heap;
+
+        scratch.update(source, 0.0, -1);
+        queue.offer(source, 0.0);
+
+        int settled = 0;
+        int relaxed = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            scratch.settle(node);
+            settled++;
+
+            if (node == target) {
+                return new PathSearchResult(true, scratch.distance(target), unroll(graph, scratch, target),
+                        settled, relaxed);
+            }
+
+            double distance = scratch.distance(node);
+            relaxed += graph.endEdge(node) - graph.firstEdge(node);
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                int adjacent = graph.target(e);
+                double newDistance = distance + graph.weight(e);
+                if (scratch.isSettled(adjacent) || newDistance >= scratch.distance(adjacent)) {
+                    continue;
+                }
+                double bound = index == null ? 0.0 : index.lowerBound(adjacent, target);
+                if (bound == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                scratch.update(adjacent, newDistance, node);
+                queue.offer(adjacent, newDistance + bound);
+            }
+        }
+        return PathSearchResult.unreachable(settled, relaxed);
+    }
+
+    /**
+     * Dijkstra bidireccional: avanza siempre el frente con menor distancia en el tope,
+     * y corta cuando la suma de ambos topes no puede mejorar el mejor encuentro.
+     */
+    private PathSearchResult bidirectional(CostGraph graph, int source, int target) {
+        if (source == target) {
+            return new PathSearchResult(true, 0.0, List.of(graph.idAt(source)), 1, 0);
+        }
+
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            return bidirectional(graph, source, target,
+                    lease.prepare(SearchScratch.FORWARD, graph.nodeCount()),
+                    lease.prepare(SearchScratch.BACKWARD, graph.nodeCount()));
+        }
+    }
+
+    private PathSearchResult bidirectional(CostGraph graph, int source, int target,
+                                           SearchScratch forward, SearchScratch backward) {
+        forward.update(source, 0.0, -1);
+        forward.heap.offer(source, 0.0);
+        backward.update(target, 0.0, -1);
+        backward.heap.offer(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meetForward = -1;
+        int meetBackward = -1;
+        int settled = 0;
+        int relaxed = 0;
+
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            double topForward = forward.heap.peekKey();
+            double topBackward = backward.heap.peekKey();
+            if (topForward + topBackward >= best) {
+                break;
+            }
+
+            boolean isForward = topForward <= topBackward;
+            SearchScratch side = isForward ? forward : backward;
+            SearchScratch other = isForward ? backward : forward;
+            int node = side.heap.poll();
+            side.settle(node);
+            settled++;
+
+            double distance = side.distance(node);
+            relaxed += graph.endEdge(node) - graph.firstEdge(node);
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                int adjacent = graph.target(e);
+                double newDistance = distance + graph.weight(e);
+
+                // Candidato a encuentro: el vecino ya fue alcanzado por la otra búsqueda
+                double meeting = newDistance + other.distance(adjacent);
+                if (meeting < best) {
+                    best = meeting;
+                    meetForward = isForward ? node : adjacent;
+                    meetBackward = isForward ? adjacent : node;
+                }
+
+                if (!side.isSettled(adjacent) && newDistance < side.distance(adjacent)) {
+                    side.update(adjacent, newDistance, node);
+                    side.heap.offer(adjacent, newDistance);
+                }
+            }
+        }
+
+        if (best == Double.POSITIVE_INFINITY) {
+            return PathSearchResult.unreachable(settled, relaxed);
+        }
+
+        List<Long> camino = unroll(graph, forward, meetForward);
+        for (int node = meetBackward; node != -1; node = backward.predecessor(node)) {
+            camino.add(graph.idAt(node));
+        }
+        return new PathSearchResult(true, best, camino, settled, relaxed);
+    }
+
+    private static List<Long> unroll(CostGraph graph, SearchScratch scratch, int target) {
+        List<Long> camino = new ArrayList<>();
+        for (int node = target; node != -1; node = scratch.predecessor(node)) {
+            camino.add(graph.idAt(node));
+        }
+        Collections.reverse(camino);
+        return camino;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenance.shutdownNow();
+    }
+
+    /**
+     * Landmarks y el snapshot para el que sus cotas son válidas: aquel sobre el que se
+     * calcularon o uno posterior al que solo se llegó subiendo o quitando aristas.
+     */
+    private record Landmarks(LandmarkIndex index, CostGraph validFor) {
+    }
+}
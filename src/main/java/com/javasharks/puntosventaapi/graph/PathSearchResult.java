@@ -0,0 +1,19 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.List;
+
+/**
+ * Resultado de una consulta de camino mínimo.
+ *
+ * @param alcanzable si existe camino entre origen y destino
+ * @param costoTotal costo del camino ({@code +Infinity} si no es alcanzable)
+ * @param camino     IDs de los puntos de venta del camino, de origen a destino
+ * @param settled    nodos asentados por la búsqueda (0 si la respuesta salió de una tabla)
+ * @param relaxed    aristas examinadas desde los nodos asentados
+ */
+public record PathSearchResult(boolean alcanzable, double costoTotal, List<Long> camino, int settled, int relaxed) {
+
+    public static PathSearchResult unreachable(int settled, int relaxed) {
+        return new PathSearchResult(false, Double.POSITIVE_INFINITY, List.of(), settled, relaxed);
+    }
+}
@@ -0,0 +1,117 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Buffers de trabajo reutilizables para las búsquedas sobre el grafo: distancias, predecesores,
+ * nodos asentados y el heap indexado.
+ * <p>
+ * Los buffers se toman prestados de un pool ({@link #acquire()}) y solo crecen cuando aparece un
+ * grafo más grande. Entre búsquedas se restauran únicamente los nodos tocados, así que una
+ * consulta que explora poco no paga O(n) de inicialización.
+ * <p>
+ * El pool reemplaza a un {@code ThreadLocal}: con hilos virtuales cada pedido corre en un hilo
+ * nuevo, y un buffer por hilo se volvía a asignar (O(n)) en cada consulta. Como las búsquedas no
+ * bloquean, a la vez hay como mucho un préstamo por núcleo y el pool se mantiene chico.
+ */
+final class SearchScratch {
+
+    // Dos juegos por préstamo: la búsqueda bidireccional usa uno por frente. Si el pool está
+    // lleno al devolver, el juego se descarta
+    private static final BlockingQueue<SearchScratch[]> POOL =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+
+    static final int FORWARD = 0;
+    static final int BACKWARD = 1;
+
+    final IndexedMinHeap heap = new IndexedMinHeap();
+    private double[] distances = new double[0];
+    private int[] predecessors = new int[0];
+    private boolean[] settled = new boolean[0];
+    private int[] touched = new int[0];
+    private int touchedCount;
+
+    private SearchScratch() {
+    }
+
+    /**
+     * Toma un juego de buffers del pool; se devuelve al cerrar el préstamo.
+     */
+    static Lease acquire() {
+        SearchScratch[] sets = POOL.poll();
+        return new Lease(sets != null ? sets : new SearchScratch[]{new SearchScratch(), new SearchScratch()});
+    }
+
+    private void prepare(int nodes) {
+        if (distances.length < nodes) {
+            distances = new double[nodes];
+            predecessors = new int[nodes];
+            settled = new boolean[nodes];
+            touched = new int[nodes];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecessors, -1);
+            touchedCount = 0;
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                int node = touched[i];
+                distances[node] = Double.POSITIVE_INFINITY;
+                predecessors[node] = -1;
+                settled[node] = false;
+            }
+            touchedCount = 0;
+        }
+        heap.ensureCapacity(nodes);
+        heap.clear();
+    }
+
+    double distance(int node) {
+        return distances[node];
+    }
+
+    int predecessor(int node) {
+        return predecessors[node];
+    }
+
+    boolean isSettled(int node) {
+        return settled[node];
+    }
+
+    void settle(int node) {
+        settled[node] = true;
+    }
+
+    /**
+     * Registra una distancia mejor para el nodo.
+     */
+    void update(int node, double distance, int predecessor) {
+        if (distances[node] == Double.POSITIVE_INFINITY) {
+            touched[touchedCount++] = node;
+        }
+        distances[node] = distance;
+        predecessors[node] = predecessor;
+    }
+
+    static final class Lease implements AutoCloseable {
+        private final SearchScratch[] sets;
+
+        private Lease(SearchScratch[] sets) {
+            this.sets = sets;
+        }
+
+        /**
+         * Buffers del préstamo, listos para una búsqueda sobre un grafo de {@code nodes} nodos.
+         */
+        SearchScratch prepare(int slot, int nodes) {
+            SearchScratch scratch = sets[slot];
+            scratch.prepare(nodes);
+            return scratch;
+        }
+
+        @Override
+        public void close() {
+            POOL.offer(sets);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.javasharks.puntosventaapi.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Árbol de caminos mínimos desde un origen, calculado con una única ejecución de Dijkstra.
+ * <p>
+ * La búsqueda se detiene en cuanto todos los destinos pedidos quedan asentados,
+ * así que solo es válido para esos destinos (y los nodos asentados antes que ellos).
+ */
+public final class ShortestPathTree {
+
+    private final CostGraph graph;
+    private final double[] distances;
+    private final int[] predecessors;
+    private final int settled;
+    private final int relaxed;
+
+    private ShortestPathTree(CostGraph graph, double[] distances, int[] predecessors, int settled, int relaxed) {
+        this.graph = graph;
+        this.distances = distances;
+        this.predecessors = predecessors;
+        this.settled = settled;
+        this.relaxed = relaxed;
+    }
+
+    /**
+     * Ejecuta Dijkstra desde {@code source} hasta asentar todos los {@code targets}.
+     *
+     * @param targets índices de destino; si es {@code null} se recorre todo el componente del origen
+     */
+    public static ShortestPathTree compute(CostGraph graph, int source, int[] targets) {
+        int n = graph.nodeCount();
+        double[] distances = new double[n];
+        int[] predecessors = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, -1);
+
+        boolean[] pending = null;
+        int remaining = 0;
+        if (targets != null) {
+            pending = new boolean[n];
+            for (int target : targets) {
+                if (!pending[target]) {
+                    pending[target] = true;
+                    remaining++;
+                }
+            }
+        }
+
+        int settled = 0;
+        int relaxed = 0;
+        // Con decrease-key cada nodo sale del heap una sola vez, ya con su distancia definitiva
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            IndexedMinHeap queue = lease.prepare(SearchScratch.FORWARD, n).heap;
+            distances[source] = 0.0;
+            queue.offer(source, 0.0);
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                settled++;
+
+                // Cortar cuando el último destino pedido queda asentado
+                if (pending != null && pending[node] && --remaining == 0) {
+                    break;
+                }
+
+                relaxed += graph.endEdge(node) - graph.firstEdge(node);
+                for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                    int adjacent = graph.target(e);
+                    double newDistance = distances[node] + graph.weight(e);
+                    if (newDistance < distances[adjacent]) {
+                        distances[adjacent] = newDistance;
+                        predecessors[adjacent] = node;
+                        queue.offer(adjacent, newDistance);
+                    }
+                }
+            }
+        }
+
+        return new ShortestPathTree(graph, distances, predecessors, settled, relaxed);
+    }
+
+    /**
+     * Nodos asentados por la búsqueda.
+     */
+    public int settled() {
+        return settled;
+    }
+
+    /**
+     * Aristas examinadas desde los nodos asentados.
+     */
+    public int relaxed() {
+        return relaxed;
+    }
+
+    public CostGraph graph() {
+        return graph;
+    }
+
+    public boolean reached(int target) {
+        return distances[target] != Double.POSITIVE_INFINITY;
+    }
+
+    public double distance(int target) {
+        return distances[target];
+    }
+
+    /**
+     * Primer nodo después del origen en el camino hacia el destino,
+     * el propio origen si coinciden, o {@code -1} si no se alcanzó.
+     */
+    public int firstHop(int target) {
+        if (!reached(target)) {
+            return -1;
+        }
+        int node = target;
+        while (predecessors[node] != -1 && predecessors[predecessors[node]] != -1) {
+            node = predecessors[node];
+        }
+        return node;
+    }
+
+    /**
+     * Camino desde el origen hasta el destino, como lista de IDs.
+     */
+    public List<Long> path(int target) {
+        if (!reached(target)) {
+            return List.of();
+        }
+        List<Long> path = new ArrayList<>();
+        for (int node = target; node != -1; node = predecessors[node]) {
+            path.add(graph.idAt(node));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,67 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.model.Accreditation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asigna IDs de acreditación antes de escribir la fila, reservando bloques de la secuencia
+ * {@value Accreditation#ID_SEQUENCE} con la misma semántica pooled-lo que usa Hibernate:
+ * {@code nextval} devuelve {@code v} y quedan reservados {@code v .. v + allocationSize - 1}.
+ * Así un {@code nextval} cubre {@value Accreditation#ID_ALLOCATION_SIZE} acreditaciones.
+ */
+@Component
+public class AccreditationIdAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(AccreditationIdAllocator.class);
+
+    // Si la tabla ya tenía filas (por ejemplo, de cuando el ID era IDENTITY), adelanta la secuencia.
+    // Con is_called, last_value es el inicio del último bloque entregado, que otra réplica puede
+    // estar usando todavía: solo se adelanta si hay IDs más allá de ese bloque, nunca hacia atrás
+    private static final String ALIGN_SEQUENCE_SQL = """
+            SELECT setval('%1$s', (SELECT MAX(id) + 1 FROM acreditaciones), false)
+            WHERE (SELECT MAX(id) FROM acreditaciones) >= (
+                SELECT CASE WHEN is_called THEN last_value + %2$d ELSE last_value END FROM %1$s)
+            """.formatted(Accreditation.ID_SEQUENCE, Accreditation.ID_ALLOCATION_SIZE);
+    private static final String NEXT_BLOCK_SQL = "SELECT nextval('" + Accreditation.ID_SEQUENCE + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean aligned;
+    private long next;
+    private long limit;
+
+    public AccreditationIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next == limit) {
+                reserveBlock();
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserveBlock() {
+        if (!aligned) {
+            jdbcTemplate.queryForList(ALIGN_SEQUENCE_SQL);
+            aligned = true;
+        }
+        Long lo = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+        if (lo == null) {
+            throw new IllegalStateException("La secuencia " + Accreditation.ID_SEQUENCE + " no devolvió valor");
+        }
+        next = lo;
+        limit = lo + Accreditation.ID_ALLOCATION_SIZE;
+        log.debug("Bloque de IDs de acreditación reservado: {} - {}", next, limit - 1);
+    }
+}
@@ -0,0 +1,241 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.exception.ServiceOverloadedException;
+import com.javasharks.puntosventaapi.model.Accreditation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ingesta write-behind de acreditaciones: cola acotada en memoria y un hilo que la vacía en
+ * lotes, confirmando un batch JDBC cuando junta {@code batch-size} acreditaciones o cuando pasa
+ * {@code flush-interval} desde la primera del lote (group commit).
+ * <p>
+ * Si la cola está llena, {@link #submit(Accreditation)} rechaza el pedido con
+ * {@link ServiceOverloadedException} en lugar de bloquear al llamador. Al apagar la aplicación
+ * se dejan de aceptar pedidos y se escribe lo que quedaba en la cola.
+ * <p>
+ * Un lote que no se puede escribir se reintenta hasta {@code reintentos} veces, con esperas que
+ * empiezan en {@code reintento-espera} y se duplican (hasta {@value #MAX_RETRY_BACKOFF_SECONDS} s):
+ * a quien ya recibió el ID, una caída breve de la base no le cuesta la acreditación. Mientras
+ * tanto la cola sigue aceptando hasta llenarse. Si se agotan los reintentos el lote se descarta
+ * (queda en el log con sus IDs y en {@code acreditaciones.ingesta.descartadas}).
+ */
+@Component
+public class AccreditationIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(AccreditationIngestionQueue.class);
+    private static final long MAX_RETRY_BACKOFF_SECONDS = 10;
+
+    private final AccreditationWriter writer;
+    private final IngestionMode mode;
+    private final AckMode ackMode;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration ackTimeout;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final BlockingQueue<Pending> queue;
+    private final boolean virtualThreads;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter retries;
+    private final Counter discarded;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public AccreditationIngestionQueue(AccreditationWriter writer, MeterRegistry meterRegistry,
+                                       @Value("${app.acreditaciones.ingesta.modo:DIRECT}") IngestionMode mode,
+                                       @Value("${app.acreditaciones.ingesta.ack:DURABLE}") AckMode ackMode,
+                                       @Value("${app.acreditaciones.ingesta.capacidad:10000}") int capacity,
+                                       @Value("${app.acreditaciones.ingesta.batch-size:500}") int batchSize,
+                                       @Value("${app.acreditaciones.ingesta.flush-interval:20ms}") Duration flushInterval,
+                                       @Value("${app.acreditaciones.ingesta.ack-timeout:5s}") Duration ackTimeout,
+                                       @Value("${app.acreditaciones.ingesta.reintentos:8}") int maxRetries,
+                                       @Value("${app.acreditaciones.ingesta.reintento-espera:200ms}") Duration retryBackoff,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.writer = writer;
+        this.mode = mode;
+        this.ackMode = ackMode;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.ackTimeout = ackTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.virtualThreads = virtualThreads;
+
+        this.flushTimer = Timer.builder("acreditaciones.ingesta.flush")
+                .description("Tiempo de escritura de cada lote de acreditaciones")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("acreditaciones.ingesta.lote")
+                .description("Acreditaciones por lote escrito")
+                .register(meterRegistry);
+        this.retries = Counter.builder("acreditaciones.ingesta.reintentos")
+                .description("Reintentos de escritura de lotes de acreditaciones")
+                .register(meterRegistry);
+        this.discarded = Counter.builder("acreditaciones.ingesta.descartadas")
+                .description("Acreditaciones descartadas tras agotar los reintentos de su lote")
+                .register(meterRegistry);
+        Gauge.builder("acreditaciones.ingesta.cola", queue, BlockingQueue::size)
+                .description("Acreditaciones en cola pendientes de escribir")
+                .register(meterRegistry);
+    }
+
+    public boolean enabled() {
+        return mode == IngestionMode.WRITE_BEHIND;
+    }
+
+    public boolean durableAck() {
+        return ackMode == AckMode.DURABLE;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled()) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        flusher = builder.name("accreditation-flusher").start(this::runFlusher);
+        log.info("Ingesta write-behind de acreditaciones activa (ack {}, lote {}, cola {})",
+                ackMode, batchSize, queue.remainingCapacity());
+    }
+
+    /**
+     * Encola una acreditación con ID ya asignado.
+     *
+     * @return futuro que se completa cuando el lote que la contiene se confirma
+     * @throws ServiceOverloadedException si la cola está llena o la ingesta se está apagando
+     */
+    public CompletableFuture<Void> submit(Accreditation accreditation) {
+        Pending pending = new Pending(accreditation, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceOverloadedException("La cola de acreditaciones está llena; reintente en unos instantes");
+        }
+        return pending.written();
+    }
+
+    /**
+     * Espera la confirmación de escritura, como mucho {@code ack-timeout}. Vencido el plazo la
+     * acreditación sigue en la cola, o en un lote que se está reintentando, y se va a escribir
+     * igual salvo que se agoten los reintentos. No es un error: el llamador la informa como
+     * aceptada en lugar de pedir un reintento que la duplicaría.
+     *
+     * @return {@code true} si se confirmó dentro del plazo, {@code false} si sigue pendiente
+     */
+    public boolean await(CompletableFuture<Void> written) {
+        try {
+            written.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            log.debug("Acreditación sin confirmar tras {}; queda encolada", ackTimeout);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera de confirmación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error escribiendo la acreditación", e.getCause());
+        }
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Solo se interrumpe al apagar: se escribe lo que ya se tomó y el loop drena el resto
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Accreditation> accreditations = batch.stream().map(Pending::accreditation).toList();
+        long backoffNanos = retryBackoffNanos;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                flushTimer.record(() -> writer.write(accreditations));
+                batchSizes.record(batch.size());
+                batch.forEach(p -> p.written().complete(null));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    log.error("Lote de {} acreditaciones descartado tras {} reintentos (IDs {} a {})", batch.size(),
+                            maxRetries, accreditations.get(0).getId(),
+                            accreditations.get(accreditations.size() - 1).getId(), e);
+                    discarded.increment(batch.size());
+                    batch.forEach(p -> p.written().completeExceptionally(e));
+                    return;
+                }
+                log.warn("No se pudo escribir un lote de {} acreditaciones; reintento {} de {} en {} ms: {}",
+                        batch.size(), attempt + 1, maxRetries, TimeUnit.NANOSECONDS.toMillis(backoffNanos),
+                        e.getMessage());
+                retries.increment();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoffNanos);
+                } catch (InterruptedException interrupted) {
+                    // Se está apagando: los reintentos que quedan van sin espera
+                    running = false;
+                    backoffNanos = 0;
+                }
+                backoffNanos = Math.min(backoffNanos * 2, TimeUnit.SECONDS.toNanos(MAX_RETRY_BACKOFF_SECONDS));
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        log.info("Ingesta write-behind detenida; pendientes sin escribir: {}", queue.size());
+    }
+
+    private record Pending(Accreditation accreditation, CompletableFuture<Void> written) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.dto.SerieAcreditacionResponse;
+import com.javasharks.puntosventaapi.model.Accreditation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumulados de acreditaciones por intervalo de tiempo y punto de venta.
+ * <p>
+ * Los acumulados por hora ({@code acreditaciones_por_hora}) se actualizan en la misma transacción
+ * que inserta cada lote, igual que los totales de {@link AccreditationSummaries}. Un job periódico
+ * compacta las horas de los días cerrados en {@code acreditaciones_por_dia} y borra lo que excede
+ * la retención de cada tabla. La compactación reemplaza el valor del día (no lo suma), así que
+ * repetirla es inocua y recalcular los últimos {@code compaction-lookback} días absorbe las
+ * acreditaciones que llegan tarde a un día ya compactado. Si el job estuvo parado más que eso,
+ * la corrida siguiente empieza en el día posterior al último compactado.
+ * <p>
+ * Las series se responden solo desde estas tablas: por día, los días sin fila compactada se
+ * agregan desde las horas.
+ */
+@Component
+public class AccreditationRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(AccreditationRollups.class);
+
+    private static final String UPSERT_HOUR_SQL = """
+            INSERT INTO acreditaciones_por_hora AS h
+                (selling_point_id, bucket_start, accreditation_count, total_amount)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (selling_point_id, bucket_start) DO UPDATE SET
+                accreditation_count = h.accreditation_count + EXCLUDED.accreditation_count,
+                total_amount = h.total_amount + EXCLUDED.total_amount
+            """;
+    private static final String COMPACT_DAYS_SQL = """
+            INSERT INTO acreditaciones_por_dia
+                (selling_point_id, bucket_start, accreditation_count, total_amount)
+            SELECT selling_point_id, date_trunc('day', bucket_start), SUM(accreditation_count), SUM(total_amount)
+            FROM acreditaciones_por_hora
+            WHERE bucket_start >= ? AND bucket_start < ?
+            GROUP BY 1, 2
+            ON CONFLICT (selling_point_id, bucket_start) DO UPDATE SET
+                accreditation_count = EXCLUDED.accreditation_count,
+                total_amount = EXCLUDED.total_amount
+            """;
+    private static final String PRUNE_HOURS_SQL = "DELETE FROM acreditaciones_por_hora WHERE bucket_start < ?";
+    private static final String PRUNE_DAYS_SQL = "DELETE FROM acreditaciones_por_dia WHERE bucket_start < ?";
+
+    // Recálculo de las horas desde la tabla base (primer arranque con acreditaciones previas)
+    private static final String LOCK_HOURS_SQL = "LOCK TABLE acreditaciones_por_hora IN EXCLUSIVE MODE";
+    private static final String CLEAR_HOURS_SQL = "DELETE FROM acreditaciones_por_hora WHERE bucket_start >= ?";
+    private static final String REBUILD_HOURS_SQL = """
+            INSERT INTO acreditaciones_por_hora
+                (selling_point_id, bucket_start, accreditation_count, total_amount)
+            SELECT selling_point_id, date_trunc('hour', created_at), COUNT(*), SUM(amount)
+            FROM acreditaciones
+            WHERE created_at >= ?
+            GROUP BY 1, 2
+            """;
+    private static final String NEEDS_REBUILD_SQL = """
+            SELECT NOT EXISTS (SELECT 1 FROM acreditaciones_por_hora)
+               AND EXISTS (SELECT 1 FROM acreditaciones WHERE created_at >= ?)
+            """;
+
+    private static final String HOUR_SERIES_SQL = """
+            SELECT bucket_start, accreditation_count, total_amount
+            FROM acreditaciones_por_hora
+            WHERE selling_point_id = ? AND bucket_start >= ? AND bucket_start < ?
+            ORDER BY bucket_start
+            """;
+    // Días compactados, más los que no tienen fila diaria agregados desde las horas
+    private static final String DAY_SERIES_SQL = """
+            SELECT bucket_start, accreditation_count, total_amount
+            FROM acreditaciones_por_dia
+            WHERE selling_point_id = ? AND bucket_start >= ? AND bucket_start < ?
+            UNION ALL
+            SELECT date_trunc('day', h.bucket_start), SUM(h.accreditation_count), SUM(h.total_amount)
+            FROM acreditaciones_por_hora h
+            WHERE h.selling_point_id = ? AND h.bucket_start >= ? AND h.bucket_start < ?
+              AND NOT EXISTS (SELECT 1 FROM acreditaciones_por_dia d
+                              WHERE d.selling_point_id = h.selling_point_id
+                                AND d.bucket_start = date_trunc('day', h.bucket_start))
+            GROUP BY 1
+            ORDER BY 1
+            """;
+    private static final String LAST_COMPACTED_DAY_SQL = "SELECT MAX(bucket_start) FROM acreditaciones_por_dia";
+    private static final RowMapper<SerieAcreditacionResponse.Intervalo> BUCKET_MAPPER = (rs, i) ->
+            new SerieAcreditacionResponse.Intervalo(
+                    rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2), rs.getBigDecimal(3));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration hourlyRetention;
+    private final Duration dailyRetention;
+    private final Duration compactionLookback;
+    private final Timer compactionTimer;
+
+    public AccreditationRollups(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.acreditaciones.rollups.hourly-retention:90d}") Duration hourlyRetention,
+                                @Value("${app.acreditaciones.rollups.daily-retention:90d}") Duration dailyRetention,
+                                @Value("${app.acreditaciones.rollups.compaction-lookback:2d}") Duration compactionLookback) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hourlyRetention = hourlyRetention;
+        this.dailyRetention = dailyRetention;
+        this.compactionLookback = compactionLookback;
+        this.compactionTimer = Timer.builder("acreditaciones.rollups.compaction")
+                .description("Tiempo de compactación de acumulados por hora en acumulados por día")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suma un lote ya insertado a los acumulados por hora. Debe correr dentro de la transacción del insert.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<Accreditation> accreditations) {
+        // Ordenado por punto de venta y hora: los lotes concurrentes toman los locks en el mismo orden
+        Map<BucketKey, Delta> deltas = new TreeMap<>();
+        for (Accreditation a : accreditations) {
+            BucketKey key = new BucketKey(a.getSellingPointId(), RollupGranularity.HOUR.truncate(a.getCreatedAt()));
+            deltas.merge(key, new Delta(1, a.getAmount()), Delta::merge);
+        }
+
+        List<Map.Entry<BucketKey, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_HOUR_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getKey().sellingPointId());
+            ps.setTimestamp(2, Timestamp.valueOf(row.getKey().bucketStart()));
+            ps.setLong(3, row.getValue().count());
+            ps.setBigDecimal(4, row.getValue().total());
+        });
+    }
+
+    /**
+     * Serie de un punto de venta entre {@code desde} (se redondea al inicio de su intervalo) y
+     * {@code hasta} (exclusive).
+     */
+    public List<SerieAcreditacionResponse.Intervalo> series(long sellingPointId, LocalDateTime desde,
+                                                           LocalDateTime hasta, RollupGranularity granularity) {
+        Timestamp from = Timestamp.valueOf(granularity.truncate(desde));
+        Timestamp to = Timestamp.valueOf(hasta);
+        if (granularity == RollupGranularity.HOUR) {
+            return jdbcTemplate.query(HOUR_SERIES_SQL, BUCKET_MAPPER, sellingPointId, from, to);
+        }
+        return jdbcTemplate.query(DAY_SERIES_SQL, BUCKET_MAPPER, sellingPointId, from, to, sellingPointId, from, to);
+    }
+
+    /**
+     * Compacta los días cerrados dentro de {@code compaction-lookback}, o desde el día posterior al
+     * último compactado si es anterior (sin ir más atrás que la retención de las horas), y aplica
+     * la retención.
+     */
+    @Scheduled(cron = "${app.acreditaciones.rollups.compaction-cron:0 15 * * * *}")
+    public void compact() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime from = today.minus(compactionLookback);
+        Timestamp lastCompacted = jdbcTemplate.queryForObject(LAST_COMPACTED_DAY_SQL, Timestamp.class);
+        if (lastCompacted != null && lastCompacted.toLocalDateTime().plusDays(1).isBefore(from)) {
+            // El job estuvo parado: se retoma donde quedó; lo anterior a la retención ya no tiene horas
+            LocalDateTime next = lastCompacted.toLocalDateTime().plusDays(1);
+            LocalDateTime oldestHour = today.minus(hourlyRetention);
+            from = next.isBefore(oldestHour) ? oldestHour : next;
+        }
+        compact(from, today);
+    }
+
+    private void compact(LocalDateTime from, LocalDateTime until) {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        int[] counts = compactionTimer.record(() -> transactionTemplate.execute(status -> new int[]{
+                jdbcTemplate.update(COMPACT_DAYS_SQL, Timestamp.valueOf(from), Timestamp.valueOf(until)),
+                jdbcTemplate.update(PRUNE_HOURS_SQL, Timestamp.valueOf(today.minus(hourlyRetention))),
+                jdbcTemplate.update(PRUNE_DAYS_SQL, Timestamp.valueOf(today.minus(dailyRetention)))
+        }));
+        log.debug("Compactación de acreditaciones: {} días actualizados, {} horas y {} días vencidos borrados",
+                counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * Primer arranque con acreditaciones previas a los acumulados: recalcula las horas dentro de la
+     * retención desde la tabla base y compacta todos los días cerrados.
+     * <p>
+     * Como en {@link AccreditationSummaries#rebuild()}, el lock sobre la tabla de horas hace que los
+     * lotes en curso esperen y sumen su parte después del recálculo. Bajo el lock se borran las
+     * horas del período antes de insertar: si otra instancia (o un lote) escribió entre la
+     * verificación y el lock, el recálculo las reemplaza en lugar de chocar con la clave única.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        Timestamp retained = Timestamp.valueOf(today.minus(hourlyRetention));
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(NEEDS_REBUILD_SQL, Boolean.class, retained))) {
+            return;
+        }
+        Integer hours = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_HOURS_SQL);
+            jdbcTemplate.update(CLEAR_HOURS_SQL, retained);
+            return jdbcTemplate.update(REBUILD_HOURS_SQL, retained);
+        });
+        compact(today.minus(hourlyRetention), today);
+        log.info("Acumulados por hora recalculados desde la tabla de acreditaciones: {} intervalos", hours);
+    }
+
+    private record BucketKey(long sellingPointId, LocalDateTime bucketStart) implements Comparable<BucketKey> {
+        @Override
+        public int compareTo(BucketKey other) {
+            int bySellingPoint = Long.compare(sellingPointId, other.sellingPointId);
+            return bySellingPoint != 0 ? bySellingPoint : bucketStart.compareTo(other.bucketStart);
+        }
+    }
+
+    private record Delta(long count, BigDecimal total) {
+        Delta merge(Delta other) {
+            return new Delta(count + other.count, total.add(other.total));
+        }
+    }
+}
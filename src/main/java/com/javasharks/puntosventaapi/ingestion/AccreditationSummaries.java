@@ -0,0 +1,153 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.model.Accreditation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene la tabla {@code acreditaciones_resumen} (cantidad, total, mínimo, máximo y última fecha
+ * por punto de venta) de forma incremental, en la misma transacción que inserta las acreditaciones.
+ * <p>
+ * Cada lote se agrega primero en memoria, así un punto de venta recibe un único upsert por lote
+ * aunque tenga muchas acreditaciones en él. Los upserts van ordenados por punto de venta para que
+ * dos lotes concurrentes tomen los locks de fila en el mismo orden y no se bloqueen mutuamente.
+ * <p>
+ * {@link #rebuild()} recalcula la tabla desde {@code acreditaciones}; se ejecuta al arrancar si la
+ * tabla está vacía pero hay acreditaciones, según {@code app.acreditaciones.resumen.rebuild-cron}
+ * y a pedido.
+ */
+@Component
+public class AccreditationSummaries {
+
+    private static final Logger log = LoggerFactory.getLogger(AccreditationSummaries.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO acreditaciones_resumen AS r
+                (selling_point_id, accreditation_count, total_amount, min_amount, max_amount, last_created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (selling_point_id) DO UPDATE SET
+                accreditation_count = r.accreditation_count + EXCLUDED.accreditation_count,
+                total_amount = r.total_amount + EXCLUDED.total_amount,
+                min_amount = LEAST(r.min_amount, EXCLUDED.min_amount),
+                max_amount = GREATEST(r.max_amount, EXCLUDED.max_amount),
+                last_created_at = GREATEST(r.last_created_at, EXCLUDED.last_created_at)
+            """;
+    // Bloquea las escrituras incrementales mientras se recalcula; las lecturas siguen
+    private static final String LOCK_SQL = "LOCK TABLE acreditaciones_resumen IN EXCLUSIVE MODE";
+    private static final String CLEAR_SQL = "DELETE FROM acreditaciones_resumen";
+    private static final String REBUILD_SQL = """
+            INSERT INTO acreditaciones_resumen
+                (selling_point_id, accreditation_count, total_amount, min_amount, max_amount, last_created_at)
+            SELECT selling_point_id, COUNT(*), SUM(amount), MIN(amount), MAX(amount), MAX(created_at)
+            FROM acreditaciones
+            GROUP BY selling_point_id
+            """;
+    private static final String NEEDS_REBUILD_SQL = """
+            SELECT NOT EXISTS (SELECT 1 FROM acreditaciones_resumen)
+               AND EXISTS (SELECT 1 FROM acreditaciones)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer rebuildTimer;
+
+    public AccreditationSummaries(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTimer = Timer.builder("acreditaciones.resumen.rebuild")
+                .description("Tiempo de recálculo de los totales por punto de venta")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suma un lote ya insertado a los totales. Debe correr dentro de la transacción del insert.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<Accreditation> accreditations) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (Accreditation a : accreditations) {
+            deltas.merge(a.getSellingPointId(), Delta.of(a), Delta::merge);
+        }
+
+        List<Map.Entry<Long, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            Delta delta = row.getValue();
+            ps.setLong(1, row.getKey());
+            ps.setLong(2, delta.count());
+            ps.setBigDecimal(3, delta.total());
+            ps.setBigDecimal(4, delta.min());
+            ps.setBigDecimal(5, delta.max());
+            ps.setTimestamp(6, Timestamp.valueOf(delta.last()));
+        });
+    }
+
+    /**
+     * Recalcula todos los totales desde la tabla de acreditaciones.
+     * <p>
+     * Los lotes que ya insertaron sus acreditaciones pero no confirmaron esperan en su upsert a que
+     * termine el recálculo (que no las ve) y recién entonces suman su parte, así no se pierde ni se
+     * cuenta dos veces ninguna acreditación.
+     *
+     * @return cantidad de puntos de venta con totales
+     */
+    public int rebuild() {
+        Integer rows = rebuildTimer.record(() -> transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_SQL);
+            jdbcTemplate.update(CLEAR_SQL);
+            return jdbcTemplate.update(REBUILD_SQL);
+        }));
+        log.info("Totales de acreditaciones recalculados para {} puntos de venta", rows);
+        return rows == null ? 0 : rows;
+    }
+
+    @Scheduled(cron = "${app.acreditaciones.resumen.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Primer arranque con acreditaciones previas a la tabla de totales.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(NEEDS_REBUILD_SQL, Boolean.class))) {
+            log.info("Tabla de totales vacía con acreditaciones existentes; recalculando");
+            rebuild();
+        }
+    }
+
+    private record Delta(long count, BigDecimal total, BigDecimal min, BigDecimal max, LocalDateTime last) {
+
+        static Delta of(Accreditation a) {
+            return new Delta(1, a.getAmount(), a.getAmount(), a.getAmount(), a.getCreatedAt());
+        }
+
+        Delta merge(Delta other) {
+            return new Delta(count + other.count,
+                    total.add(other.total),
+                    min.min(other.min),
+                    max.max(other.max),
+                    last.isAfter(other.last) ? last : other.last);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.model.Accreditation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Escribe acreditaciones (con el ID ya asignado) como un batch JDBC en una sola transacción.
+ * Es el único camino de escritura, tanto para el modo directo como para el write-behind, y por eso
+ * también actualiza en esa transacción los totales por punto de venta y los acumulados por hora.
+ * <p>
+ * La duración de cada escritura (insert, totales y acumulados, sin el commit) se publica en
+ * {@code acreditaciones.insert}, con histograma.
+ */
+@Component
+public class AccreditationWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO acreditaciones (id, amount, selling_point_id, created_at, nm_selling_point)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccreditationSummaries summaries;
+    private final AccreditationRollups rollups;
+    private final Timer insertTimer;
+
+    public AccreditationWriter(JdbcTemplate jdbcTemplate, AccreditationSummaries summaries,
+                               AccreditationRollups rollups, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.summaries = summaries;
+        this.rollups = rollups;
+        this.insertTimer = Timer.builder("acreditaciones.insert")
+                .description("Escritura de un lote de acreditaciones con sus totales y acumulados")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void write(List<Accreditation> accreditations) {
+        insertTimer.record(() -> insert(accreditations));
+    }
+
+    private void insert(List<Accreditation> accreditations) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, accreditations, accreditations.size(), (ps, a) -> {
+            ps.setLong(1, a.getId());
+            ps.setBigDecimal(2, a.getAmount());
+            ps.setLong(3, a.getSellingPointId());
+            ps.setTimestamp(4, Timestamp.valueOf(a.getCreatedAt()));
+            ps.setString(5, a.getSellingPointName());
+        });
+        summaries.record(accreditations);
+        rollups.record(accreditations);
+    }
+}
@@ -0,0 +1,18 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+/**
+ * Cuándo se responde a un pedido en modo {@link IngestionMode#WRITE_BEHIND}.
+ */
+public enum AckMode {
+    /**
+     * Después de que el lote que contiene la acreditación se confirmó en la base (201). Si no se
+     * confirma dentro de {@code ack-timeout} se responde 202: la acreditación sigue en la cola, o
+     * en un lote que se está reintentando.
+     */
+    DURABLE,
+    /**
+     * Apenas la acreditación entró en la cola (202); se pierde si la instancia cae antes del flush
+     * o si su lote agota los reintentos de escritura.
+     */
+    ACCEPTED
+}
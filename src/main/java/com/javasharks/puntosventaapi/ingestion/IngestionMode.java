@@ -0,0 +1,15 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+/**
+ * Cómo se persisten las acreditaciones recibidas.
+ */
+public enum IngestionMode {
+    /**
+     * Cada pedido escribe su fila antes de responder.
+     */
+    DIRECT,
+    /**
+     * Los pedidos se encolan y un hilo los escribe en lotes JDBC.
+     */
+    WRITE_BEHIND
+}
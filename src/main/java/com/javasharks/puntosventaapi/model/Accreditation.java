@@ -11,13 +11,19 @@ import java.util.Objects;
  */
 @Entity
 @Table(name = "acreditaciones", indexes = {
-    @Index(name = "idx_selling_point_id", columnList = "selling_point_id"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    // Soportan la paginación por keyset de los listados (general y por punto de venta)
+    @Index(name = "idx_selling_point_created_at_id", columnList = "selling_point_id, created_at, id"),
+    @Index(name = "idx_created_at_id", columnList = "created_at, id")
 })
 public class Accreditation {
-    
+
+    // Secuencia de IDs; cada nextval reserva un bloque de ID_ALLOCATION_SIZE IDs (pooled-lo)
+    public static final String ID_SEQUENCE = "acreditaciones_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, precision = 19, scale = 2)
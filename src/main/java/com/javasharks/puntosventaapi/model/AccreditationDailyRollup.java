@@ -0,0 +1,51 @@
+package com.javasharks.puntosventaapi.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad y total de acreditaciones por día y punto de venta, generados compactando los
+ * acumulados por hora de los días cerrados.
+ * <p>
+ * Las escrituras van por {@code AccreditationRollups}; la entidad solo define la tabla.
+ */
+@Entity
+@Table(name = "acreditaciones_por_dia")
+@IdClass(AccreditationRollupId.class)
+public class AccreditationDailyRollup {
+
+    @Id
+    @Column(name = "selling_point_id")
+    private Long sellingPointId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "accreditation_count", nullable = false)
+    private long count;
+
+    @Column(name = "total_amount", nullable = false, precision = 21, scale = 2)
+    private BigDecimal total;
+
+    protected AccreditationDailyRollup() {
+    }
+
+    public Long getSellingPointId() {
+        return sellingPointId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+}
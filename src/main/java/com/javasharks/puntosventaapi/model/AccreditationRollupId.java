@@ -0,0 +1,36 @@
+package com.javasharks.puntosventaapi.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Clave de los acumulados por intervalo: punto de venta e inicio del intervalo.
+ */
+public class AccreditationRollupId implements Serializable {
+
+    private Long sellingPointId;
+    private LocalDateTime bucketStart;
+
+    public AccreditationRollupId() {
+    }
+
+    public AccreditationRollupId(Long sellingPointId, LocalDateTime bucketStart) {
+        this.sellingPointId = sellingPointId;
+        this.bucketStart = bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AccreditationRollupId that = (AccreditationRollupId) o;
+        return Objects.equals(sellingPointId, that.sellingPointId) &&
+               Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sellingPointId, bucketStart);
+    }
+}
@@ -0,0 +1,75 @@
+package com.javasharks.puntosventaapi.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totales acumulados de acreditaciones por punto de venta.
+ * <p>
+ * Se actualizan en la misma transacción que inserta las acreditaciones (ver
+ * {@code AccreditationSummaries}); desde la aplicación solo se leen.
+ */
+@Entity
+@Table(name = "acreditaciones_resumen")
+public class AccreditationSummary {
+
+    @Id
+    @Column(name = "selling_point_id")
+    private Long sellingPointId;
+
+    @Column(name = "accreditation_count", nullable = false)
+    private long count;
+
+    @Column(name = "total_amount", nullable = false, precision = 21, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "min_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column(name = "last_created_at", nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    protected AccreditationSummary() {
+    }
+
+    public Long getSellingPointId() {
+        return sellingPointId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public LocalDateTime getLastCreatedAt() {
+        return lastCreatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenAcreditaciones{" +
+               "sellingPointId=" + sellingPointId +
+               ", count=" + count +
+               ", total=" + total +
+               ", minAmount=" + minAmount +
+               ", maxAmount=" + maxAmount +
+               ", lastCreatedAt=" + lastCreatedAt +
+               '}';
+    }
+}
@@ -1,13 +1,45 @@
 package com.javasharks.puntosventaapi.repository;
 
+import com.javasharks.puntosventaapi.dto.AcreditacionResponse;
 import com.javasharks.puntosventaapi.model.Accreditation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Las consultas de listado son paginadas por keyset sobre {@code (created_at, id)}, de la más
+ * reciente a la más antigua, y proyectan directo al DTO (sin entidades administradas).
+ * La condición {@code createdAt <= :createdAt} es redundante pero acota el rango del índice,
+ * así cualquier página cuesta lo mismo que la primera.
+ */
 @Repository
 public interface AcreditacionRepository extends JpaRepository<Accreditation, Long> {
 
-    List<Accreditation> findByPuntoVentaId(Long puntoVentaId);
-}
\ No newline at end of file
+    String PROJECTION = "select new com.javasharks.puntosventaapi.dto.AcreditacionResponse("
+            + "a.id, a.amount, a.sellingPointId, a.sellingPointName, a.createdAt) from Accreditation a ";
+    String ORDER = " order by a.createdAt desc, a.id desc";
+    String AFTER_CURSOR = "a.createdAt <= :createdAt and (a.createdAt < :createdAt or a.id < :id)";
+
+    @Query(PROJECTION + ORDER)
+    List<AcreditacionResponse> findFirstPage(Limit limit);
+
+    @Query(PROJECTION + "where " + AFTER_CURSOR + ORDER)
+    List<AcreditacionResponse> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    @Query(PROJECTION + "where a.sellingPointId = :sellingPointId" + ORDER)
+    List<AcreditacionResponse> findFirstPageBySellingPoint(@Param("sellingPointId") Long sellingPointId,
+                                                           Limit limit);
+
+    @Query(PROJECTION + "where a.sellingPointId = :sellingPointId and " + AFTER_CURSOR + ORDER)
+    List<AcreditacionResponse> findPageBySellingPointAfter(@Param("sellingPointId") Long sellingPointId,
+                                                           @Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("id") Long id,
+                                                           Limit limit);
+}
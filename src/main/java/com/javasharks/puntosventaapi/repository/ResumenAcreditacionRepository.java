@@ -0,0 +1,12 @@
+package com.javasharks.puntosventaapi.repository;
+
+import com.javasharks.puntosventaapi.model.AccreditationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Lectura de los totales por punto de venta; las escrituras van por {@code AccreditationSummaries}.
+ */
+@Repository
+public interface ResumenAcreditacionRepository extends JpaRepository<AccreditationSummary, Long> {
+}
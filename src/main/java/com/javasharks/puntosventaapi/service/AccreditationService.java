@@ -1,16 +1,40 @@
 package com.javasharks.puntosventaapi.service;
 
+import com.javasharks.puntosventaapi.dto.AcreditacionPageResponse;
 import com.javasharks.puntosventaapi.dto.AcreditacionRequest;
 import com.javasharks.puntosventaapi.dto.AcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.ResumenAcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.SerieAcreditacionResponse;
+import com.javasharks.puntosventaapi.export.AccreditationExport;
+import com.javasharks.puntosventaapi.export.ExportFormat;
+import com.javasharks.puntosventaapi.ingestion.RollupGranularity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AccreditationService {
 
-    AcreditacionResponse procesarAcreditacion(AcreditacionRequest request);
+    ProcessedAccreditation procesarAcreditacion(AcreditacionRequest request);
 
-    List<AcreditacionResponse> getAllAcreditaciones();
+    AcreditacionPageResponse getAcreditaciones(String cursor, int limite);
 
-    List<AcreditacionResponse> getAcreditacionesByPuntoVenta(Long puntoVentaId);
+    AcreditacionPageResponse getAcreditacionesByPuntoVenta(Long puntoVentaId, String cursor, int limite);
 
+    AccreditationExport exportAcreditaciones(ExportFormat formato, LocalDateTime desde, LocalDateTime hasta,
+                                             Long puntoVentaId);
+
+    List<ResumenAcreditacionResponse> getResumen();
+
+    ResumenAcreditacionResponse getResumenByPuntoVenta(Long puntoVentaId);
+
+    int reconstruirResumen();
+
+    SerieAcreditacionResponse getSerie(Long puntoVentaId, LocalDateTime desde, LocalDateTime hasta,
+                                       RollupGranularity granularidad);
+
+    /**
+     * Acreditación procesada, indicando si ya estaba persistida al responder o solo encolada.
+     */
+    record ProcessedAccreditation(AcreditacionResponse acreditacion, boolean persisted) {
+    }
 }
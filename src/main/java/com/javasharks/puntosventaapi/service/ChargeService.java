@@ -1,20 +1,36 @@
 package com.javasharks.puntosventaapi.service;
 
 import com.javasharks.puntosventaapi.dto.AdjacentSellingPointResponse;
+import com.javasharks.puntosventaapi.dto.ChargeBatchResponse;
+import com.javasharks.puntosventaapi.dto.ComponentsResponse;
+import com.javasharks.puntosventaapi.dto.DistanceMatrixResponse;
 import com.javasharks.puntosventaapi.dto.MinDistanceResponse;
+import com.javasharks.puntosventaapi.graph.PathAlgorithm;
 import com.javasharks.puntosventaapi.model.Charge;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ChargeService {
 
     Charge addCharge(Charge charge);
 
+    ChargeBatchResponse importCharges(List<Charge> charges);
+
     void removeCharge(Long origenId, Long destinoId);
 
     AdjacentSellingPointResponse getAdjacent(Long idPuntoVenta);
 
     MinDistanceResponse calculateMinDistance(Long origenId, Long destinoId);
 
+    MinDistanceResponse calculateMinDistance(Long origenId, Long destinoId, PathAlgorithm algorithm);
+
+    Stream<MinDistanceResponse> calculateShortestPathTree(Long origenId, List<Long> destinoIds);
+
+    DistanceMatrixResponse calculateDistanceMatrix(List<Long> origenIds, List<Long> destinoIds,
+                                                   boolean incluirSiguienteSalto);
+
+    ComponentsResponse getComponents();
+
     void init(List<Charge> charges);
 }
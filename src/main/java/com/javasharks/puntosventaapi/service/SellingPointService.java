@@ -2,7 +2,9 @@ package com.javasharks.puntosventaapi.service;
 
 import com.javasharks.puntosventaapi.model.SellingPoint;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface SellingPointService {
@@ -11,6 +13,8 @@ public interface SellingPointService {
 
     List<SellingPoint> findAll();
 
+    List<SellingPoint> findPage(long desde, int limite);
+
     Optional<SellingPoint> findById(Long id);
 
     SellingPoint create(SellingPoint sellingPoint);
@@ -20,4 +24,6 @@ public interface SellingPointService {
     void delete(Long id);
 
     boolean exists(Long id);
+
+    Map<Long, SellingPoint> findAllById(Collection<Long> ids);
 }
@@ -1,46 +1,88 @@
 package com.javasharks.puntosventaapi.service.impl;
 
+import com.javasharks.puntosventaapi.dto.AcreditacionPageResponse;
 import com.javasharks.puntosventaapi.dto.AcreditacionRequest;
 import com.javasharks.puntosventaapi.dto.AcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.ResumenAcreditacionResponse;
+import com.javasharks.puntosventaapi.dto.SerieAcreditacionResponse;
 import com.javasharks.puntosventaapi.exception.ResourceNotFoundException;
+import com.javasharks.puntosventaapi.export.AccreditationExport;
+import com.javasharks.puntosventaapi.export.AccreditationExporter;
+import com.javasharks.puntosventaapi.export.ExportFormat;
+import com.javasharks.puntosventaapi.ingestion.AccreditationIdAllocator;
+import com.javasharks.puntosventaapi.ingestion.AccreditationIngestionQueue;
+import com.javasharks.puntosventaapi.ingestion.AccreditationRollups;
+import com.javasharks.puntosventaapi.ingestion.AccreditationSummaries;
+import com.javasharks.puntosventaapi.ingestion.AccreditationWriter;
+import com.javasharks.puntosventaapi.ingestion.RollupGranularity;
 import com.javasharks.puntosventaapi.model.Accreditation;
 import com.javasharks.puntosventaapi.model.SellingPoint;
 import com.javasharks.puntosventaapi.repository.AcreditacionRepository;
+import com.javasharks.puntosventaapi.repository.ResumenAcreditacionRepository;
 import com.javasharks.puntosventaapi.service.AccreditationService;
 import com.javasharks.puntosventaapi.service.SellingPointService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class AccreditationServiceImpl implements AccreditationService {
 
     private static final Logger log = LoggerFactory.getLogger(AccreditationServiceImpl.class);
     private final AcreditacionRepository acreditacionRepository;
     private final SellingPointService sellingPointService;
+    private final AccreditationIdAllocator idAllocator;
+    private final AccreditationWriter writer;
+    private final AccreditationIngestionQueue ingestionQueue;
+    private final AccreditationExporter exporter;
+    private final ResumenAcreditacionRepository resumenRepository;
+    private final AccreditationSummaries summaries;
+    private final AccreditationRollups rollups;
+    // Tamaño máximo de página en los listados
+    private static final int MAX_PAGE_SIZE = 1000;
 
     public AccreditationServiceImpl(AcreditacionRepository acreditacionRepository,
-                                    SellingPointService sellingPointService) {
+                                    SellingPointService sellingPointService,
+                                    AccreditationIdAllocator idAllocator,
+                                    AccreditationWriter writer,
+                                    AccreditationIngestionQueue ingestionQueue,
+                                    AccreditationExporter exporter,
+                                    ResumenAcreditacionRepository resumenRepository,
+                                    AccreditationSummaries summaries,
+                                    AccreditationRollups rollups) {
         this.acreditacionRepository = acreditacionRepository;
         this.sellingPointService = sellingPointService;
+        this.idAllocator = idAllocator;
+        this.writer = writer;
+        this.ingestionQueue = ingestionQueue;
+        this.exporter = exporter;
+        this.resumenRepository = resumenRepository;
+        this.summaries = summaries;
+        this.rollups = rollups;
     }
 
     /**
      * Procesa una nueva acreditación.
      * Enriquece la información con fecha actual y nombre del punto de venta.
+     * <p>
+     * El ID se asigna antes de escribir. En modo directo la fila se escribe antes de responder;
+     * en modo write-behind se encola y, según el ack configurado, se espera o no su confirmación.
      *
      * @param request Datos de la acreditación
-     * @return Acreditación procesada y persistida
+     * @return Acreditación procesada; queda encolada sin persistir si el ack es {@code ACCEPTED}
+     *         o si no se confirmó dentro del {@code ack-timeout}
      */
-    @Transactional
     @Override
-    public AcreditacionResponse procesarAcreditacion(AcreditacionRequest request) {
-        log.info("Procesando acreditación para punto de venta ID: {}, importe: {}",
+    public ProcessedAccreditation procesarAcreditacion(AcreditacionRequest request) {
+        log.debug("Procesando acreditación para punto de venta ID: {}, importe: {}",
                 request.puntoVentaId(), request.importe());
 
         SellingPoint sellingPoint = sellingPointService.findById(request.puntoVentaId())
@@ -49,39 +91,53 @@ public class AccreditationServiceImpl implements AccreditationService {
                 ));
 
         Accreditation accreditation = Accreditation.builder()
+                .id(idAllocator.nextId())
                 .amount(request.importe())
                 .sellingPointId(request.puntoVentaId())
                 .sellingPointName(sellingPoint.nombre())
                 .creationDate(LocalDateTime.now())
                 .build();
 
-        Accreditation saved = acreditacionRepository.save(accreditation);
+        boolean persisted = true;
+        if (ingestionQueue.enabled()) {
+            CompletableFuture<Void> written = ingestionQueue.submit(accreditation);
+            persisted = ingestionQueue.durableAck() && ingestionQueue.await(written);
+        } else {
+            writer.write(List.of(accreditation));
+        }
 
-        log.info("Acreditación procesada exitosamente. ID: {}", saved.getId());
+        log.debug("Acreditación procesada exitosamente. ID: {}", accreditation.getId());
 
-        return mapToResponse(saved);
+        return new ProcessedAccreditation(mapToResponse(accreditation), persisted);
     }
 
     /**
-     * Recupera todas las acreditaciones.
+     * Recupera una página de acreditaciones, de la más reciente a la más antigua.
+     *
+     * @param cursor token devuelto por la página anterior, o {@code null} para la primera
      */
     @Transactional(readOnly = true)
     @Override
-    public List<AcreditacionResponse> getAllAcreditaciones() {
-        log.debug("Recuperando todas las acreditaciones");
-
-        return acreditacionRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public AcreditacionPageResponse getAcreditaciones(String cursor, int limite) {
+        log.debug("Recuperando página de acreditaciones (límite {})", limite);
+        Limit limit = pageLimit(limite);
+
+        List<AcreditacionResponse> rows;
+        if (cursor == null) {
+            rows = acreditacionRepository.findFirstPage(limit);
+        } else {
+            AccreditationCursor after = AccreditationCursor.decode(cursor);
+            rows = acreditacionRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        }
+        return toPage(rows, limite);
     }
 
     /**
-     * Recupera acreditaciones por punto de venta.
+     * Recupera una página de acreditaciones de un punto de venta, de la más reciente a la más antigua.
      */
     @Transactional(readOnly = true)
     @Override
-    public List<AcreditacionResponse> getAcreditacionesByPuntoVenta(Long puntoVentaId) {
+    public AcreditacionPageResponse getAcreditacionesByPuntoVenta(Long puntoVentaId, String cursor, int limite) {
         log.debug("Recuperando acreditaciones para punto de venta ID: {}", puntoVentaId);
 
         // Validar que el punto de venta existe
@@ -91,10 +147,99 @@ public class AccreditationServiceImpl implements AccreditationService {
             );
         }
 
-        return acreditacionRepository.findByPuntoVentaId(puntoVentaId)
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        Limit limit = pageLimit(limite);
+        List<AcreditacionResponse> rows;
+        if (cursor == null) {
+            rows = acreditacionRepository.findFirstPageBySellingPoint(puntoVentaId, limit);
+        } else {
+            AccreditationCursor after = AccreditationCursor.decode(cursor);
+            rows = acreditacionRepository.findPageBySellingPointAfter(puntoVentaId, after.createdAt(), after.id(), limit);
+        }
+        return toPage(rows, limite);
+    }
+
+    /**
+     * Exporta acreditaciones en streaming; las filas se leen recién al escribir la respuesta.
+     */
+    @Override
+    public AccreditationExport exportAcreditaciones(ExportFormat formato, LocalDateTime desde, LocalDateTime hasta,
+                                                    Long puntoVentaId) {
+        log.debug("Exportando acreditaciones en {} (desde {}, hasta {}, punto de venta {})",
+                formato, desde, hasta, puntoVentaId);
+        return exporter.export(formato, desde, hasta, puntoVentaId);
+    }
+
+    /**
+     * Totales de todos los puntos de venta con acreditaciones, leídos de la tabla de resumen.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<ResumenAcreditacionResponse> getResumen() {
+        return resumenRepository.findAll().stream()
+                .map(ResumenAcreditacionResponse::of)
+                .toList();
+    }
+
+    /**
+     * Totales de un punto de venta con una lectura por clave primaria.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public ResumenAcreditacionResponse getResumenByPuntoVenta(Long puntoVentaId) {
+        return resumenRepository.findById(puntoVentaId)
+                .map(ResumenAcreditacionResponse::of)
+                .orElseGet(() -> {
+                    if (!sellingPointService.exists(puntoVentaId)) {
+                        throw new ResourceNotFoundException(
+                                String.format("Punto de venta con ID %d no encontrado", puntoVentaId)
+                        );
+                    }
+                    return ResumenAcreditacionResponse.empty(puntoVentaId);
+                });
+    }
+
+    @Override
+    public int reconstruirResumen() {
+        return summaries.rebuild();
+    }
+
+    /**
+     * Serie por hora o por día de un punto de venta, respondida solo desde los acumulados.
+     */
+    @Override
+    public SerieAcreditacionResponse getSerie(Long puntoVentaId, LocalDateTime desde, LocalDateTime hasta,
+                                              RollupGranularity granularidad) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' debe ser anterior a 'hasta'");
+        }
+        if (!sellingPointService.exists(puntoVentaId)) {
+            throw new ResourceNotFoundException(
+                    String.format("Punto de venta con ID %d no encontrado", puntoVentaId)
+            );
+        }
+        return new SerieAcreditacionResponse(puntoVentaId, granularidad,
+                rollups.series(puntoVentaId, desde, hasta, granularidad));
+    }
+
+    /**
+     * Se pide una fila de más para saber si hay página siguiente sin contar el total.
+     */
+    private Limit pageLimit(int limite) {
+        if (limite <= 0 || limite > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    String.format("El límite debe estar entre 1 y %d", MAX_PAGE_SIZE));
+        }
+        return Limit.of(limite + 1);
+    }
+
+    private AcreditacionPageResponse toPage(List<AcreditacionResponse> rows, int limite) {
+        if (rows.size() <= limite) {
+            return new AcreditacionPageResponse(rows, null);
+        }
+        List<AcreditacionResponse> page = rows.subList(0, limite);
+        AcreditacionResponse last = page.get(limite - 1);
+        return new AcreditacionPageResponse(page,
+                new AccreditationCursor(last.fechaRecepcion(), last.id()).encode());
     }
 
     private AcreditacionResponse mapToResponse(Accreditation accreditation) {
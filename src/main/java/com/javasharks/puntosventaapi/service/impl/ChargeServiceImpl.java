@@ -1,112 +1,252 @@
 package com.javasharks.puntosventaapi.service.impl;
 
+import com.javasharks.puntosventaapi.cache.SingleFlightLruCache;
 import com.javasharks.puntosventaapi.dto.MinDistanceResponse;
 import com.javasharks.puntosventaapi.dto.AdjacentSellingPointResponse;
+import com.javasharks.puntosventaapi.dto.ChargeBatchResponse;
+import com.javasharks.puntosventaapi.dto.ComponentsResponse;
+import com.javasharks.puntosventaapi.dto.DistanceMatrixResponse;
+import com.javasharks.puntosventaapi.event.ChargeChangedEvent;
+import com.javasharks.puntosventaapi.event.ClusterChangeNotifier;
+import com.javasharks.puntosventaapi.event.SellingPointChangedEvent;
 import com.javasharks.puntosventaapi.exception.ResourceNotFoundException;
+import com.javasharks.puntosventaapi.graph.AllPairsShortestPaths;
+import com.javasharks.puntosventaapi.graph.AllPairsTable;
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.graph.GraphConnectivity;
+import com.javasharks.puntosventaapi.graph.PathAlgorithm;
+import com.javasharks.puntosventaapi.graph.PathQueryEngine;
+import com.javasharks.puntosventaapi.graph.PathSearchResult;
+import com.javasharks.puntosventaapi.graph.ShortestPathTree;
 import com.javasharks.puntosventaapi.model.Charge;
 import com.javasharks.puntosventaapi.model.SellingPoint;
 import com.javasharks.puntosventaapi.service.ChargeService;
 import com.javasharks.puntosventaapi.service.SellingPointService;
+import com.javasharks.puntosventaapi.storage.CostGraphStore;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-
-import static com.javasharks.puntosventaapi.config.RedisConfig.DEFAULT_TTL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class ChargeServiceImpl implements ChargeService {
 
     private static final Logger log = LoggerFactory.getLogger(ChargeServiceImpl.class);
+    // Destinos por tanda al generar el árbol de caminos; sus nombres se resuelven juntos
+    private static final int TREE_NAME_BATCH_SIZE = 500;
     private final SellingPointService sellingPointService;
-    private final RedisTemplate<String, Object> redisTemplate;
-
-    // Redis keys para el grafo de costos
-    private static final String COSTO_KEY_PREFIX = "costo:";
-
-    public ChargeServiceImpl(SellingPointService sellingPointService, RedisTemplate<String, Object> redisTemplate) {
+    private final CostGraphStore store;
+    private final AllPairsShortestPaths allPairs;
+    private final PathQueryEngine pathQueryEngine;
+    private final GraphConnectivity connectivity;
+    private final ClusterChangeNotifier clusterNotifier;
+
+    // Snapshot en memoria del grafo sobre el que corre Dijkstra; se reemplaza completo en cada cambio
+    private final AtomicReference<CostGraph> graph = new AtomicReference<>(CostGraph.empty());
+    // Serializa los reemplazos del snapshot (recargas y parches) y evita recargas simultáneas
+    private final ReentrantLock graphLock = new ReentrantLock();
+    // Respuestas de camino mínimo por (origen, destino, versión del grafo); un cambio de versión las invalida
+    private final SingleFlightLruCache<PathKey, MinDistanceResponse> pathCache;
+    // Lecturas del grafo resueltas con el snapshot vigente (hit) o que tuvieron que recargarlo (miss)
+    private final Counter snapshotHits;
+    private final Counter snapshotMisses;
+    private final ForkJoinPool distanceMatrixPool;
+    // Máximo de celdas (orígenes x destinos) por pedido de matriz
+    private final int matrixMaxCells;
+
+    public ChargeServiceImpl(SellingPointService sellingPointService, CostGraphStore store,
+                             AllPairsShortestPaths allPairs, PathQueryEngine pathQueryEngine,
+                             GraphConnectivity connectivity, ClusterChangeNotifier clusterNotifier,
+                             MeterRegistry meterRegistry,
+                             ForkJoinPool distanceMatrixPool,
+                             @Value("${app.graph.path-cache.max-size:10000}") int pathCacheSize,
+                             @Value("${app.graph.matrix.max-cells:250000}") int matrixMaxCells) {
         this.sellingPointService = sellingPointService;
-        this.redisTemplate = redisTemplate;
+        this.store = store;
+        this.allPairs = allPairs;
+        this.pathQueryEngine = pathQueryEngine;
+        this.connectivity = connectivity;
+        this.clusterNotifier = clusterNotifier;
+        this.pathCache = new SingleFlightLruCache<>("camino-minimo", pathCacheSize, meterRegistry);
+        this.snapshotHits = Counter.builder("cache.gets").tag("cache", "grafo").tag("result", "hit")
+                .register(meterRegistry);
+        this.snapshotMisses = Counter.builder("cache.gets").tag("cache", "grafo").tag("result", "miss")
+                .register(meterRegistry);
+        this.distanceMatrixPool = distanceMatrixPool;
+        this.matrixMaxCells = matrixMaxCells;
     }
 
     /**
-     * Carga un nuevo costo entre dos puntos de venta en Redis.
+     * Carga un nuevo costo entre dos puntos de venta.
      * Crea un camino directo bidireccional.
+     * <p>
+     * La validación de ambos puntos, las dos escrituras y el avance de versión son atómicos
+     * en el almacén (en Redis, un único script): ningún lector ve la arista en un solo sentido.
      */
     @Override
     public Charge addCharge(Charge charge) {
-        // Validar que ambos puntos de venta existan
-        if (!sellingPointService.exists(charge.idSellingPointOrigin())) {
+        Long idA = charge.idSellingPointOrigin();
+        Long idB = charge.idSellingPointDestination();
+
+        long result = store.addEdge(idA, idB, charge.value());
+        if (result < 0) {
+            Long missing = result == CostGraphStore.MISSING_DESTINATION ? idB : idA;
             throw new ResourceNotFoundException(
-                    String.format("Punto de venta con ID %d no existe", charge.idSellingPointOrigin())
+                    String.format("Punto de venta con ID %d no existe", missing)
             );
         }
-        if (!sellingPointService.exists(charge.idSellingPointDestination())) {
-            throw new ResourceNotFoundException(
-                    String.format("Punto de venta con ID %d no existe", charge.idSellingPointDestination())
-            );
+
+        long version = result;
+        applyEdgeChange(version, idA, idB, charge.value());
+        clusterNotifier.chargeChanged(idA, idB, charge.value(), version);
+
+        log.debug("Costo agregado: {} <-> {} = {}", idA, idB, charge.value());
+
+        return charge;
+    }
+
+    /**
+     * Carga un lote de costos con una sola validación de puntos de venta y escrituras en pipeline.
+     * El snapshot en memoria se recarga una sola vez al final, no arista por arista.
+     */
+    @Override
+    public ChargeBatchResponse importCharges(List<Charge> charges) {
+        ImportResult result = writeCharges(charges);
+        if (!result.accepted().isEmpty()) {
+            long version = store.bumpVersion();
+            clusterNotifier.graphReloaded(version);
+            currentGraph();
         }
 
-        // Agregar arista bidireccional en Redis usando Hash
-        String keyA = COSTO_KEY_PREFIX + charge.idSellingPointOrigin();
-        String keyB = COSTO_KEY_PREFIX + charge.idSellingPointDestination();
+        ChargeBatchResponse response = result.response();
+        log.info("Carga masiva de costos: {} insertados, {} actualizados, {} rechazados",
+                response.insertados(), response.actualizados(), response.rechazados());
+        return response;
+    }
 
-        redisTemplate.opsForHash().put(keyA, charge.idSellingPointDestination().toString(), charge.value());
-        redisTemplate.opsForHash().put(keyB, charge.idSellingPointOrigin().toString(), charge.value());
+    /**
+     * Valida el lote contra los puntos de venta existentes (una única búsqueda) y escribe las
+     * aristas válidas en el almacén. No toca el snapshot ni la versión.
+     */
+    private ImportResult writeCharges(List<Charge> charges) {
+        Set<Long> ids = new HashSet<>();
+        charges.stream().filter(Objects::nonNull).forEach(c -> {
+            ids.add(c.idSellingPointOrigin());
+            ids.add(c.idSellingPointDestination());
+        });
+        ids.remove(null);
+        Set<Long> existing = sellingPointService.findAllById(ids).keySet();
+
+        List<Charge> accepted = new ArrayList<>();
+        List<ChargeBatchResponse.Rechazo> rechazos = new ArrayList<>();
+        for (Charge charge : charges) {
+            String motivo = rejectionReason(charge, existing);
+            if (motivo == null) {
+                accepted.add(charge);
+            } else {
+                rechazos.add(new ChargeBatchResponse.Rechazo(
+                        charge == null ? null : charge.idSellingPointOrigin(),
+                        charge == null ? null : charge.idSellingPointDestination(),
+                        motivo));
+            }
+        }
 
-        // Establecer TTL de 24 horas
-        redisTemplate.expire(keyA, DEFAULT_TTL.toHours(), TimeUnit.HOURS);
-        redisTemplate.expire(keyB, DEFAULT_TTL.toHours(), TimeUnit.HOURS);
+        int insertados = accepted.isEmpty() ? 0 : store.putEdges(accepted);
 
-        log.info("Costo agregado a Redis: {} <-> {} = {}",
-                charge.idSellingPointOrigin(), charge.idSellingPointDestination(), charge.value());
+        ChargeBatchResponse response = new ChargeBatchResponse(
+                insertados, accepted.size() - insertados, rechazos.size(), rechazos);
+        return new ImportResult(accepted, response);
+    }
 
-        return charge;
+    private static String rejectionReason(Charge charge, Set<Long> existing) {
+        if (charge == null || charge.idSellingPointOrigin() == null || charge.idSellingPointDestination() == null) {
+            return "Faltan los IDs de los puntos de venta";
+        }
+        if (charge.value() == null || charge.value() < 0) {
+            return "El value debe ser mayor o igual a 0";
+        }
+        if (!existing.contains(charge.idSellingPointOrigin())) {
+            return String.format("Punto de venta con ID %d no existe", charge.idSellingPointOrigin());
+        }
+        if (!existing.contains(charge.idSellingPointDestination())) {
+            return String.format("Punto de venta con ID %d no existe", charge.idSellingPointDestination());
+        }
+        return null;
     }
 
     /**
-     * Remueve el value entre dos puntos de venta de Redis.
+     * Remueve el value entre dos puntos de venta.
+     * Ambos sentidos de la arista y el avance de versión se aplican atómicamente en el almacén.
      */
     public void removeCharge(Long idA, Long idB) {
-        String keyA = COSTO_KEY_PREFIX + idA;
-        String keyB = COSTO_KEY_PREFIX + idB;
+        long result = store.removeEdge(idA, idB);
 
-        Long removed = redisTemplate.opsForHash().delete(keyA, idB.toString());
-        redisTemplate.opsForHash().delete(keyB, idA.toString());
-
-        if (removed == 0) {
+        if (result == 0) {
             throw new ResourceNotFoundException(
                     String.format("No existe conexión directa entre puntos %d y %d", idA, idB)
             );
         }
 
-        log.info("Costo removido de Redis entre {} y {}", idA, idB);
+        long version = result;
+        applyEdgeChange(version, idA, idB, null);
+        clusterNotifier.chargeChanged(idA, idB, null, version);
+
+        log.debug("Costo removido entre {} y {}", idA, idB);
     }
 
     /**
-     * Consulta los puntos de venta directamente conectados a un punto dado desde Redis.
+     * Consulta los puntos de venta directamente conectados a un punto dado.
+     * Las adyacencias salen del snapshot del grafo, validado contra la versión del almacén,
+     * y los nombres del punto y de todos sus vecinos se resuelven en una sola búsqueda.
      */
     @Override
     public AdjacentSellingPointResponse getAdjacent(Long idPuntoVenta) {
-        SellingPoint sellingPoint = sellingPointService.findById(idPuntoVenta)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Punto de venta con ID %d no encontrado", idPuntoVenta)
-                ));
-
-        String key = COSTO_KEY_PREFIX + idPuntoVenta;
-        Map<Object, Object> adjacent = redisTemplate.opsForHash().entries(key);
-        Map<Long, AdjacentSellingPointResponse.AdjacencyInfo> adjacency = new HashMap<>();
+        CostGraph costGraph = currentGraph();
+        int node = costGraph.indexOf(idPuntoVenta);
+
+        List<Long> ids = new ArrayList<>();
+        ids.add(idPuntoVenta);
+        if (node >= 0) {
+            for (int e = costGraph.firstEdge(node); e < costGraph.endEdge(node); e++) {
+                ids.add(costGraph.idAt(costGraph.target(e)));
+            }
+        }
+        Map<Long, SellingPoint> sellingPoints = sellingPointService.findAllById(ids);
 
-        adjacent.forEach((idObj, costObj) -> {
-            Long adjacentId = Long.parseLong(idObj.toString());
-            Double cost = ((Number) costObj).doubleValue();
+        SellingPoint sellingPoint = sellingPoints.get(idPuntoVenta);
+        if (sellingPoint == null) {
+            throw new ResourceNotFoundException(
+                    String.format("Punto de venta con ID %d no encontrado", idPuntoVenta)
+            );
+        }
 
-            sellingPointService.findById(adjacentId).ifPresent(a -> adjacency.put(adjacentId,
-                    new AdjacentSellingPointResponse.AdjacencyInfo(a.nombre(), cost)));
-        });
+        Map<Long, AdjacentSellingPointResponse.AdjacencyInfo> adjacency = new HashMap<>();
+        if (node >= 0) {
+            for (int e = costGraph.firstEdge(node); e < costGraph.endEdge(node); e++) {
+                Long adjacentId = costGraph.idAt(costGraph.target(e));
+                SellingPoint adjacent = sellingPoints.get(adjacentId);
+                if (adjacent != null) {
+                    adjacency.put(adjacentId,
+                            new AdjacentSellingPointResponse.AdjacencyInfo(adjacent.nombre(), costGraph.weight(e)));
+                }
+            }
+        }
 
         return new AdjacentSellingPointResponse(
                 sellingPoint.id(),
@@ -116,25 +256,75 @@ public class ChargeServiceImpl implements ChargeService {
     }
 
     /**
-     * Calcula el camino con value mínimo entre dos puntos usando el algoritmo de Dijkstra.
-     * Lee el grafo desde Redis para el cálculo.
-     * <p>
-     * Algoritmo de Dijkstra:
-     * - Garantiza encontrar el camino más corto en grafos con pesos positivos
-     * -
+     * Calcula el camino con value mínimo entre dos puntos.
+     * Usa el snapshot en memoria del grafo, sin consultar el almacén por cada nodo visitado.
+     * Las respuestas se cachean por versión del grafo y los cálculos concurrentes del mismo par se coalescen.
      */
     @Override
     public MinDistanceResponse calculateMinDistance(Long origenId, Long destinoId) {
-        // Validar que ambos puntos existan
-        SellingPoint origin = sellingPointService.findById(origenId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Punto de venta origen con ID %d no encontrado", origenId)
-                ));
+        return calculateMinDistance(origenId, destinoId, null);
+    }
 
-        SellingPoint destino = sellingPointService.findById(destinoId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        String.format("Punto de venta destino con ID %d no encontrado", destinoId)
-                ));
+    /**
+     * Calcula el camino con value mínimo entre dos puntos con un algoritmo a elección.
+     * <p>
+     * Sin algoritmo explícito se responde desde el caché, la tabla de todos los pares o el
+     * algoritmo configurado por defecto; los pares en componentes distintos se responden como
+     * inalcanzables sin buscar. Con algoritmo explícito siempre se ejecuta la búsqueda pedida,
+     * para poder comparar algoritmos sobre el grafo real.
+     *
+     * @param algorithm algoritmo a usar, o {@code null} para el comportamiento por defecto
+     */
+    @Override
+    public MinDistanceResponse calculateMinDistance(Long origenId, Long destinoId, PathAlgorithm algorithm) {
+        CostGraph costGraph = currentGraph();
+        if (algorithm != null) {
+            return computeMinDistance(costGraph, origenId, destinoId, algorithm);
+        }
+        return pathCache.get(new PathKey(origenId, destinoId, costGraph.version()),
+                () -> computeMinDistance(costGraph, origenId, destinoId, null));
+    }
+
+    /**
+     * Los nombres de los puntos forman parte de las respuestas cacheadas.
+     */
+    @EventListener
+    public void onSellingPointChanged(SellingPointChangedEvent event) {
+        pathCache.clear();
+    }
+
+    /**
+     * Cambio del grafo hecho por otra instancia: se aplica la arista sobre el snapshot local
+     * si está en la versión inmediatamente anterior. Si falta algún cambio intermedio (o se
+     * recargó el grafo completo) se resincroniza desde el almacén en el momento.
+     */
+    @EventListener
+    public void onChargeChanged(ChargeChangedEvent event) {
+        boolean applied = event.idA() != null
+                && applyEdgeChange(event.version(), event.idA(), event.idB(), event.costo());
+        if (!applied && graph.get().version() < event.version()) {
+            log.debug("Brecha de versión en el grafo (local {}, aviso {}): resincronizando",
+                    graph.get().version(), event.version());
+            currentGraph();
+        }
+    }
+
+    private MinDistanceResponse computeMinDistance(CostGraph costGraph, Long origenId, Long destinoId,
+                                                   PathAlgorithm algorithm) {
+        // Validar que ambos puntos existan
+        Map<Long, SellingPoint> endpoints = sellingPointService.findAllById(List.of(origenId, destinoId));
+        SellingPoint origin = endpoints.get(origenId);
+        if (origin == null) {
+            throw new ResourceNotFoundException(
+                    String.format("Punto de venta origen con ID %d no encontrado", origenId)
+            );
+        }
+        SellingPoint destino = endpoints.get(destinoId);
+        if (destino == null) {
+            throw new ResourceNotFoundException(
+                    String.format("Punto de venta destino con ID %d no encontrado", destinoId)
+            );
+        }
 
         // mismo origen y destino = sin costo
         if (origenId.equals(destinoId)) {
@@ -147,138 +337,348 @@ public class ChargeServiceImpl implements ChargeService {
             );
         }
 
-        // Ejecutar Dijkstra
-        DijkstraResult result = dijkstra(origenId, destinoId);
+        // Puntos en componentes distintos: no hay camino y no hace falta buscarlo
+        if (algorithm == null && !connectivity.connected(costGraph, origenId, destinoId)) {
+            return MinDistanceResponse.inalcanzable(
+                    origenId, origin.nombre(),
+                    destinoId, destino.nombre()
+            );
+        }
+
+        // Consultar la tabla precalculada si está al día; si no, ejecutar la búsqueda
+        AllPairsTable table = algorithm == null ? allPairs.tableFor(costGraph) : null;
+        PathSearchResult result = table != null
+                ? lookup(table, origenId, destinoId)
+                : pathQueryEngine.search(costGraph, origenId, destinoId, algorithm);
 
-        if (!result.alcanzable) {
+        if (!result.alcanzable()) {
             return MinDistanceResponse.inalcanzable(
                     origenId, origin.nombre(),
                     destinoId, destino.nombre()
             );
         }
 
-        // Reconstruir el camino con nombres
+        // Reconstruir el camino con nombres, resueltos todos en una sola búsqueda
+        Map<Long, SellingPoint> hops = sellingPointService.findAllById(result.camino());
         List<String> caminoNombres = new ArrayList<>();
-        for (Long id : result.camino) {
-            sellingPointService.findById(id)
-                    .ifPresent(pv -> caminoNombres.add(pv.nombre()));
+        for (Long id : result.camino()) {
+            SellingPoint pv = hops.get(id);
+            if (pv != null) {
+                caminoNombres.add(pv.nombre());
+            }
         }
 
         return new MinDistanceResponse(
                 origenId, origin.nombre(),
                 destinoId, destino.nombre(),
-                result.costoTotal,
+                result.costoTotal(),
                 caminoNombres,
                 true
         );
     }
 
     /**
-     * Implementación del algoritmo de Dijkstra.
-     * Lee el grafo desde Redis para el cálculo.
+     * Calcula los caminos mínimos desde un origen hacia varios destinos con una sola ejecución de Dijkstra,
+     * que se detiene al asentar el último destino pedido.
+     * <p>
+     * Las respuestas se generan de forma perezosa, en tandas de {@value #TREE_NAME_BATCH_SIZE} destinos
+     * (camino y nombres se resuelven al consumir el stream, con una búsqueda de nombres por tanda),
+     * para poder enviarlas sin materializar la lista completa. Los destinos inexistentes se informan
+     * como inalcanzables sin nombre.
+     *
+     * @param destinoIds destinos a calcular; si es {@code null} o vacío, todos los nodos del grafo
+     *                   (el timer del servicio mide el árbol, no el consumo del stream)
      */
-    private DijkstraResult dijkstra(Long origen, Long destino) {
-        Map<Long, Double> distances = new HashMap<>();
-        Map<Long, Long> predecessors = new HashMap<>();
-        Set<Long> checked = new HashSet<>();
-
-        // PriorityQueue para procesar nodos por menor distancia
-        PriorityQueue<NodoDistancia> queue = new PriorityQueue<>(
-                Comparator.comparingDouble(NodoDistancia::distancia)
-        );
+    @Override
+    public Stream<MinDistanceResponse> calculateShortestPathTree(Long origenId, List<Long> destinoIds) {
+        SellingPoint origin = sellingPointService.findById(origenId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        String.format("Punto de venta origen con ID %d no encontrado", origenId)
+                ));
 
-        // Inicializar distancias
-        distances.put(origen, 0.0);
-        queue.offer(new NodoDistancia(origen, 0.0));
+        CostGraph costGraph = currentGraph();
+        List<Long> destinos = destinoIds == null || destinoIds.isEmpty()
+                ? LongStream.range(0, costGraph.nodeCount()).map(i -> costGraph.idAt((int) i)).boxed().toList()
+                : destinoIds;
+
+        int source = costGraph.indexOf(origenId);
+        int[] targets = destinos.stream()
+                .mapToInt(costGraph::indexOf)
+                .filter(index -> index >= 0)
+                .toArray();
+        ShortestPathTree tree = source >= 0 && targets.length > 0
+                ? pathQueryEngine.shortestPathTree(costGraph, source, targets)
+                : null;
+
+        // Cada nombre se busca una sola vez aunque aparezca en muchos caminos; null si el punto no existe
+        Map<Long, String> nombres = new HashMap<>();
+        nombres.put(origin.id(), origin.nombre());
+
+        int chunks = (destinos.size() + TREE_NAME_BATCH_SIZE - 1) / TREE_NAME_BATCH_SIZE;
+        return IntStream.range(0, chunks)
+                .mapToObj(chunk -> destinos.subList(chunk * TREE_NAME_BATCH_SIZE,
+                        Math.min((chunk + 1) * TREE_NAME_BATCH_SIZE, destinos.size())))
+                .flatMap(chunk -> treeResponses(origin, chunk, costGraph, tree, nombres).stream());
+    }
 
-        while (!queue.isEmpty()) {
-            NodoDistancia actual = queue.poll();
-            Long nodoActual = actual.nodoId();
+    /**
+     * Respuestas de una tanda de destinos del árbol: los nombres que todavía no se conocen (de los
+     * destinos y de los puntos de sus caminos) se resuelven en una sola búsqueda.
+     */
+    private List<MinDistanceResponse> treeResponses(SellingPoint origin, List<Long> destinos, CostGraph costGraph,
+                                                    ShortestPathTree tree, Map<Long, String> nombres) {
+        Long origenId = origin.id();
+        List<List<Long>> caminos = new ArrayList<>(destinos.size());
+        Set<Long> unknown = new HashSet<>();
+        for (Long destinoId : destinos) {
+            int target = costGraph.indexOf(destinoId);
+            List<Long> camino = !destinoId.equals(origenId) && tree != null && target >= 0 && tree.reached(target)
+                    ? tree.path(target)
+                    : null;
+            caminos.add(camino);
+            if (!nombres.containsKey(destinoId)) {
+                unknown.add(destinoId);
+            }
+            if (camino != null) {
+                camino.stream().filter(id -> !nombres.containsKey(id)).forEach(unknown::add);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Map<Long, SellingPoint> found = sellingPointService.findAllById(unknown);
+            unknown.forEach(id -> nombres.put(id, found.containsKey(id) ? found.get(id).nombre() : null));
+        }
 
-            if (checked.contains(nodoActual)) {
-                continue;
+        List<MinDistanceResponse> responses = new ArrayList<>(destinos.size());
+        for (int i = 0; i < destinos.size(); i++) {
+            Long destinoId = destinos.get(i);
+            String destinoNombre = nombres.get(destinoId);
+            List<Long> camino = caminos.get(i);
+            if (destinoId.equals(origenId)) {
+                responses.add(new MinDistanceResponse(origenId, origin.nombre(), destinoId, destinoNombre,
+                        0.0, List.of(origin.nombre()), true));
+            } else if (camino == null || destinoNombre == null) {
+                responses.add(MinDistanceResponse.inalcanzable(origenId, origin.nombre(), destinoId, destinoNombre));
+            } else {
+                List<String> caminoNombres = camino.stream()
+                        .map(nombres::get)
+                        .filter(Objects::nonNull)
+                        .toList();
+                responses.add(new MinDistanceResponse(origenId, origin.nombre(), destinoId, destinoNombre,
+                        tree.distance(costGraph.indexOf(destinoId)), caminoNombres, true));
             }
+        }
+        return responses;
+    }
 
-            checked.add(nodoActual);
+    /**
+     * Calcula la matriz de costos mínimos entre orígenes y destinos.
+     * <p>
+     * Si la tabla de todos los pares está al día, las celdas se leen de ella. Si no, se ejecuta
+     * una búsqueda de un origen a muchos destinos por cada origen, en paralelo sobre el pool
+     * dedicado y el mismo snapshot inmutable del grafo. Los IDs que no forman parte del grafo
+     * se informan como inalcanzables.
+     */
+    @Override
+    public DistanceMatrixResponse calculateDistanceMatrix(List<Long> origenIds, List<Long> destinoIds,
+                                                          boolean incluirSiguienteSalto) {
+        long cells = (long) origenIds.size() * destinoIds.size();
+        if (cells > matrixMaxCells) {
+            throw new IllegalArgumentException(String.format(
+                    "La matriz pedida tiene %d celdas; el máximo permitido es %d", cells, matrixMaxCells));
+        }
 
-            // Si llegamos al destino, podemos terminar
-            if (nodoActual.equals(destino)) {
-                break;
-            }
+        CostGraph costGraph = currentGraph();
+        int[] targets = destinoIds.stream().mapToInt(costGraph::indexOf).toArray();
+        int[] reachableTargets = Arrays.stream(targets).filter(index -> index >= 0).toArray();
+        Double[][] costos = new Double[origenIds.size()][destinoIds.size()];
+        Long[][] saltos = incluirSiguienteSalto ? new Long[origenIds.size()][destinoIds.size()] : null;
+
+        AllPairsTable table = allPairs.tableFor(costGraph);
+        List<Callable<Void>> rows = new ArrayList<>();
+        for (int i = 0; i < origenIds.size(); i++) {
+            int row = i;
+            int source = costGraph.indexOf(origenIds.get(i));
+            rows.add(() -> {
+                ShortestPathTree tree = table == null && source >= 0 && reachableTargets.length > 0
+                        ? pathQueryEngine.shortestPathTree(costGraph, source, reachableTargets)
+                        : null;
+                for (int j = 0; j < targets.length; j++) {
+                    if (origenIds.get(row).equals(destinoIds.get(j))) {
+                        costos[row][j] = 0.0;
+                        if (saltos != null) {
+                            saltos[row][j] = origenIds.get(row);
+                        }
+                        continue;
+                    }
+                    int target = targets[j];
+                    if (source < 0 || target < 0) {
+                        continue;
+                    }
+                    double distance = table != null ? table.distance(source, target) : tree.distance(target);
+                    if (distance == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    costos[row][j] = distance;
+                    if (saltos != null) {
+                        int hop = table != null ? table.nextHop(source, target) : tree.firstHop(target);
+                        saltos[row][j] = costGraph.idAt(hop);
+                    }
+                }
+                return null;
+            });
+        }
 
-            // Explorar vecinos desde Redis
-            String key = COSTO_KEY_PREFIX + nodoActual;
-            Map<Object, Object> adjacentData = redisTemplate.opsForHash().entries(key);
-            Map<Long, Double> adjacents = new HashMap<>();
-            adjacentData.forEach((k, v) -> adjacents.put(Long.parseLong(k.toString()), ((Number) v).doubleValue()));
+        if (table != null) {
+            rows.forEach(this::callUnchecked);
+        } else {
+            awaitAll(distanceMatrixPool.invokeAll(rows));
+        }
 
-            for (Map.Entry<Long, Double> adjacent : adjacents.entrySet()) {
-                Long adjacentId = adjacent.getKey();
-                Double cost = adjacent.getValue();
+        return new DistanceMatrixResponse(origenIds, destinoIds, costos, saltos);
+    }
 
-                if (checked.contains(adjacentId)) {
-                    continue;
-                }
+    /**
+     * Componentes conexos del grafo vigente, de mayor a menor tamaño.
+     */
+    @Override
+    public ComponentsResponse getComponents() {
+        CostGraph costGraph = currentGraph();
+        List<ComponentsResponse.ComponentInfo> componentes = connectivity.indexFor(costGraph).components().stream()
+                .map(ids -> new ComponentsResponse.ComponentInfo(ids.size(), ids))
+                .toList();
+        return new ComponentsResponse(componentes.size(), componentes);
+    }
 
-                double newDistance = distances.get(nodoActual) + cost;
-                double currentDistance = distances.getOrDefault(adjacentId, Double.POSITIVE_INFINITY);
+    private void callUnchecked(Callable<Void> task) {
+        try {
+            task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-                if (newDistance < currentDistance) {
-                    distances.put(adjacentId, newDistance);
-                    predecessors.put(adjacentId, nodoActual);
-                    queue.offer(new NodoDistancia(adjacentId, newDistance));
-                }
+    private void awaitAll(List<Future<Void>> futures) {
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cálculo de matriz interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error calculando la matriz de costos", e.getCause());
         }
+    }
 
-        // Reconstruir camino
-        if (!distances.containsKey(destino) || distances.get(destino) == Double.POSITIVE_INFINITY) {
-            return new DijkstraResult(false, Double.POSITIVE_INFINITY, List.of());
+    /**
+     * Resuelve el camino mínimo desde la tabla de todos los pares.
+     * Si el camino no puede desenrollarse, recurre al algoritmo por defecto.
+     */
+    private PathSearchResult lookup(AllPairsTable table, Long origen, Long destino) {
+        CostGraph costGraph = table.graph();
+        int source = costGraph.indexOf(origen);
+        int target = costGraph.indexOf(destino);
+        if (source < 0 || target < 0 || table.distance(source, target) == Double.POSITIVE_INFINITY) {
+            return PathSearchResult.unreachable(0, 0);
         }
 
-        List<Long> camino = new ArrayList<>();
-        Long actual = destino;
-
-        while (actual != null) {
-            camino.add(actual);
-            actual = predecessors.get(actual);
+        List<Long> camino = table.path(source, target);
+        if (camino == null) {
+            return pathQueryEngine.search(costGraph, origen, destino, null);
         }
-
-        Collections.reverse(camino);
-
-        return new DijkstraResult(true, distances.get(destino), camino);
+        return new PathSearchResult(true, table.distance(source, target), camino, 0, 0);
     }
 
     /**
-     * Inicializa el grafo en Redis con costos predefinidos.
+     * Inicializa el grafo en el almacén con costos predefinidos.
      * Usado por DataInitializer al inicio de la aplicación.
+     * Las aristas se escriben con la carga masiva y el snapshot en memoria se construye
+     * una sola vez al final, no arista por arista.
      */
     @Override
     public void init(List<Charge> charges) {
-        clear();
-        charges.forEach(this::addCharge);
-        log.info("Grafo inicializado en Redis con {} conexiones", charges.size());
+        store.clear();
+        ImportResult result = writeCharges(charges);
+        result.response().rechazos().forEach(r -> log.warn("Costo inicial rechazado: {}", r));
+        long version = store.bumpVersion();
+
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>();
+        result.accepted().forEach(c -> {
+            adjacency.computeIfAbsent(c.idSellingPointOrigin(), k -> new HashMap<>())
+                    .put(c.idSellingPointDestination(), c.value());
+            adjacency.computeIfAbsent(c.idSellingPointDestination(), k -> new HashMap<>())
+                    .put(c.idSellingPointOrigin(), c.value());
+        });
+        CostGraph initial = CostGraph.fromAdjacency(adjacency).withVersion(version);
+        pathQueryEngine.graphChanged(initial);
+        connectivity.graphChanged(initial);
+        graph.set(initial);
+        allPairs.rebuild(initial);
+        clusterNotifier.graphReloaded(version);
+
+        log.info("Grafo inicializado con {} conexiones", result.accepted().size());
+    }
+
+    /**
+     * Devuelve el snapshot del grafo, recargándolo si su versión no coincide con la del almacén.
+     * En el caso habitual cuesta una lectura de la versión (un GET en Redis).
+     */
+    private CostGraph currentGraph() {
+        CostGraph snapshot = graph.get();
+        if (snapshot.version() == store.version()) {
+            snapshotHits.increment();
+            return snapshot;
+        }
+        snapshotMisses.increment();
+
+        graphLock.lock();
+        try {
+            long version = store.version();
+            snapshot = graph.get();
+            if (snapshot.version() != version) {
+                snapshot = store.load();
+                pathQueryEngine.graphChanged(snapshot);
+                connectivity.graphChanged(snapshot);
+                graph.set(snapshot);
+                allPairs.rebuild(snapshot);
+            }
+            return snapshot;
+        } finally {
+            graphLock.unlock();
+        }
     }
 
     /**
-     * Limpia el grafo de Redis (útil para testing).
+     * Aplica el cambio de una arista al snapshot, al índice de componentes y a la tabla de caminos mínimos.
+     * Solo se parchea si el snapshot estaba en la versión inmediatamente anterior;
+     * si no, quedó desactualizado y la próxima lectura lo recarga completo.
+     *
+     * @param cost nuevo costo, o {@code null} si la arista se eliminó
+     * @return {@code true} si el snapshot quedó en {@code version} o en una posterior
      */
-    private void clear() {
-        Set<String> keys = redisTemplate.keys(COSTO_KEY_PREFIX + "*");
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
+    private boolean applyEdgeChange(long version, Long idA, Long idB, Double cost) {
+        graphLock.lock();
+        try {
+            CostGraph previous = graph.get();
+            if (previous.version() != version - 1) {
+                return previous.version() >= version;
+            }
+            CostGraph updated = (cost == null ? previous.withoutEdge(idA, idB) : previous.withEdge(idA, idB, cost))
+                    .withVersion(version);
+            pathQueryEngine.edgeChanged(previous, updated, idA, idB);
+            connectivity.edgeChanged(previous, updated, idA, idB);
+            graph.set(updated);
+            allPairs.edgeChanged(previous, updated, idA, idB);
+            return true;
+        } finally {
+            graphLock.unlock();
         }
-        log.warn("Grafo de costos en Redis limpiado");
     }
 
     // Records auxiliares
-    //TO-DO ingles
-    private record NodoDistancia(Long nodoId, Double distancia) {
+    private record PathKey(Long origenId, Long destinoId, long version) {
     }
 
-    /**
-     * Record para el resultado del algoritmo de Dijkstra.
-     */
-    private record DijkstraResult(boolean alcanzable, Double costoTotal, List<Long> camino) {
+    private record ImportResult(List<Charge> accepted, ChargeBatchResponse response) {
     }
 }
@@ -1,145 +1,132 @@
 package com.javasharks.puntosventaapi.service.impl;
 
+import com.javasharks.puntosventaapi.cache.NearCache;
+import com.javasharks.puntosventaapi.event.ClusterChangeNotifier;
+import com.javasharks.puntosventaapi.event.SellingPointChangedEvent;
 import com.javasharks.puntosventaapi.exception.ResourceNotFoundException;
 import com.javasharks.puntosventaapi.model.SellingPoint;
 import com.javasharks.puntosventaapi.service.SellingPointService;
+import com.javasharks.puntosventaapi.storage.SellingPointStore;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-import java.util.concurrent.TimeUnit;
-
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Puntos de venta en el {@link SellingPointStore} configurado (Redis o memoria), con un caché
+ * local (L1) por instancia delante.
+ * <p>
+ * Toda escritura invalida la entrada local y se difunde a las demás instancias, que la
+ * invalidan al recibir el {@link SellingPointChangedEvent}.
+ */
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class SellingPointServiceImpl implements SellingPointService {
 
     private static final Logger log = LoggerFactory.getLogger(SellingPointServiceImpl.class);
-    private final RedisTemplate<String, Object> redisTemplate;
-    private static final String CACHE_KEY_PREFIX = "sellingPoint:";
-    private static final String ALL_CACHE_KEY = "sellingPoint:all";
-
-    public SellingPointServiceImpl(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    private final SellingPointStore store;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterChangeNotifier clusterNotifier;
+    private final NearCache<Long, SellingPoint> localCache;
+
+    public SellingPointServiceImpl(SellingPointStore store,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ClusterChangeNotifier clusterNotifier,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.cache.selling-points.max-size:10000}") int localCacheSize,
+                                   @Value("${app.cache.selling-points.ttl:5m}") Duration localCacheTtl) {
+        this.store = store;
+        this.eventPublisher = eventPublisher;
+        this.clusterNotifier = clusterNotifier;
+        this.localCache = new NearCache<>("punto-venta", localCacheSize, localCacheTtl, meterRegistry);
     }
 
     @Override
-    @CacheEvict(value = "sellingPoint", allEntries = true)
     public void initializeCache(List<SellingPoint> sellingPoint) {
-        // Limpiar cache existente
-        clear();
-
-        // Cargar todos los puntos de venta en Redis
-        sellingPoint.forEach(pv -> redisTemplate.opsForValue().set(
-                CACHE_KEY_PREFIX + pv.id(),
-                pv,
-                24,
-                TimeUnit.HOURS
-        ));
-
-        log.info("Caché Redis inicializado con {} puntos de venta", sellingPoint.size());
+        store.replaceAll(sellingPoint);
+
+        localCache.invalidateAll();
+        eventPublisher.publishEvent(new SellingPointChangedEvent(null));
+        clusterNotifier.sellingPointChanged(null);
+        log.info("Almacén inicializado con {} puntos de venta", sellingPoint.size());
     }
 
+    /**
+     * Todos los puntos de venta, ordenados por ID.
+     */
     @Override
-    @Cacheable(value = "sellingPoint", key = "'all'")
     public List<SellingPoint> findAll() {
-        log.debug("Recuperando todos los puntos de venta desde Redis");
-        Set<String> keys = redisTemplate.keys(CACHE_KEY_PREFIX + "*");
-        if (keys.isEmpty()) {
-            return new ArrayList<>();
-        }
+        log.debug("Recuperando todos los puntos de venta");
+        List<SellingPoint> sellingPoint = store.findAll();
+        log.debug("Total puntos de venta recuperados: {}", sellingPoint.size());
+        return sellingPoint;
+    }
 
-        List<SellingPoint> sellingPoint = new ArrayList<>();
-        for (String key : keys) {
-            if (!key.equals(ALL_CACHE_KEY)) {
-                Object value = redisTemplate.opsForValue().get(key);
-                if (value instanceof SellingPoint pv) {
-                    sellingPoint.add(pv);
-                }
-            }
+    /**
+     * Página de puntos de venta con ID mayor o igual a {@code desde}, ordenados por ID.
+     */
+    @Override
+    public List<SellingPoint> findPage(long desde, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
         }
-
-        log.debug("Total puntos de venta recuperados: {}", sellingPoint.size());
-        return sellingPoint.stream()
-                .sorted(Comparator.comparingLong(SellingPoint::id))
-                .toList();
+        return store.findPage(desde, limite);
     }
 
     @Override
     public Optional<SellingPoint> findById(Long id) {
         log.debug("Buscando punto de venta con ID: {}", id);
-        Object value = redisTemplate.opsForValue().get(CACHE_KEY_PREFIX + id);
-        if (value instanceof SellingPoint pv) {
-            return Optional.of(pv);
-        }
-        return Optional.empty();
+        return Optional.ofNullable(localCache.get(id, store::find));
     }
 
     /**
-     * Crea un nuevo punto de venta en Redis.
-     * Put actualiza el caché automáticamente.
+     * Crea un nuevo punto de venta; la verificación de existencia y la escritura son atómicas.
      */
-    @Caching(
-            put = @CachePut(value = "sellingPoint", key = "#sellingPoint.id()"),
-            evict = @CacheEvict(value = "sellingPoint", key = "'all'")
-    )
     @Override
     public SellingPoint create(SellingPoint sellingPoint) {
-        // Verificar si ya existe
-        if (redisTemplate.hasKey(CACHE_KEY_PREFIX + sellingPoint.id())) {
+        if (!store.insert(sellingPoint)) {
             throw new IllegalArgumentException(
                     String.format("Ya existe un punto de venta con ID %d", sellingPoint.id())
             );
         }
 
-        redisTemplate.opsForValue().set(
-                CACHE_KEY_PREFIX + sellingPoint.id(),
-                sellingPoint,
-                24,
-                TimeUnit.HOURS
-        );
-
-        log.info("Punto de venta creado en Redis: {}", sellingPoint);
+        // Las demás instancias (y los caminos cacheados) pueden tener registrado que no existía
+        localCache.invalidate(sellingPoint.id());
+        eventPublisher.publishEvent(new SellingPointChangedEvent(sellingPoint.id()));
+        clusterNotifier.sellingPointChanged(sellingPoint.id());
+        log.debug("Punto de venta creado: {}", sellingPoint);
         return sellingPoint;
     }
 
     @Override
-    @Caching(
-            put = @CachePut(value = "sellingPoint", key = "#sellingPoint.id()"),
-            evict = @CacheEvict(value = "sellingPoint", key = "'all'")
-    )
     public SellingPoint update(Long id, SellingPoint sellingPoint) {
-        if (!redisTemplate.hasKey(CACHE_KEY_PREFIX + id)) {
+        SellingPoint updated = new SellingPoint(id, sellingPoint.nombre());
+        if (!store.update(updated)) {
             throw new ResourceNotFoundException(
                     String.format("Punto de venta con ID %d no encontrado", id)
             );
         }
 
-        SellingPoint updated = new SellingPoint(id, sellingPoint.nombre());
-        redisTemplate.opsForValue().set(
-                CACHE_KEY_PREFIX + id,
-                updated,
-                24,
-                TimeUnit.HOURS
-        );
-
-        log.info("Punto de venta actualizado en Redis: {}", updated);
+        localCache.invalidate(id);
+        eventPublisher.publishEvent(new SellingPointChangedEvent(id));
+        clusterNotifier.sellingPointChanged(id);
+        log.debug("Punto de venta actualizado: {}", updated);
         return updated;
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "sellingPoint", key = "#id"),
-            @CacheEvict(value = "sellingPoint", key = "'all'")
-    }
-    )
     @Override
     public void delete(Long id) {
-        String key = CACHE_KEY_PREFIX + id;
-        Object removed = redisTemplate.opsForValue().get(key);
+        SellingPoint removed = store.delete(id);
 
         if (removed == null) {
             throw new ResourceNotFoundException(
@@ -147,24 +134,38 @@ public class SellingPointServiceImpl implements SellingPointService {
             );
         }
 
-        redisTemplate.delete(key);
-        log.info("Punto de venta eliminado de Redis: {}", removed);
+        localCache.invalidate(id);
+        eventPublisher.publishEvent(new SellingPointChangedEvent(id));
+        clusterNotifier.sellingPointChanged(id);
+        log.debug("Punto de venta eliminado: {}", removed);
     }
 
+    /**
+     * Un punto presente en el caché local existe sin consultar el almacén.
+     */
     @Override
     public boolean exists(Long id) {
-        return redisTemplate.hasKey(CACHE_KEY_PREFIX + id);
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Busca varios puntos de venta a la vez. Los que no están en el caché local se piden al
+     * almacén en una sola consulta (un MGET en Redis); los inexistentes no figuran en el resultado.
+     */
+    @Override
+    public Map<Long, SellingPoint> findAllById(Collection<Long> ids) {
+        return localCache.getAll(ids, store::findAll);
     }
 
     /**
-     * Limpia el caché de Redis
+     * Cambios hechos por esta u otra instancia: se descarta la copia local.
      */
-    @CacheEvict(value = "sellingPoint", allEntries = true)
-    private void clear() {
-        Set<String> keys = redisTemplate.keys(CACHE_KEY_PREFIX + "*");
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
+    @EventListener
+    public void onSellingPointChanged(SellingPointChangedEvent event) {
+        if (event.id() == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(event.id());
         }
-        log.warn("Caché de puntos de venta en Redis limpiado");
     }
 }
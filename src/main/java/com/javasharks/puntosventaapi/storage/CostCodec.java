@@ -0,0 +1,62 @@
+package com.javasharks.puntosventaapi.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificación de los costos guardados como valores de los hashes {@code costo:<id>}.
+ * <p>
+ * En formato compacto cada costo se escribe en la forma más corta de tres:
+ * <ul>
+ *   <li>un costo entero como texto sin decimales ({@code 37}), que Redis guarda como entero
+ *       en la codificación compacta de los hashes chicos (ziplist/listpack);</li>
+ *   <li>un texto decimal de hasta 8 caracteres ({@code 12.5});</li>
+ *   <li>si no, una marca ({@code 0xFE}) y el double IEEE-754 en 8 bytes big-endian, de ancho fijo.</li>
+ * </ul>
+ * Las dos formas de texto son JSON válido y la marca nunca inicia un número JSON, así que la
+ * lectura no depende del formato con que se escribió: los valores JSON anteriores se siguen leyendo,
+ * incluidos NaN e infinitos, que el serializador JSON escribe como texto entre comillas.
+ * Ninguna forma pasa por Jackson.
+ */
+final class CostCodec {
+
+    static final byte BINARY_MARKER = (byte) 0xFE;
+    static final int BINARY_LENGTH = 1 + Double.BYTES;
+    // Por debajo de 2^53 todo entero es exacto como double
+    private static final double MAX_EXACT_INTEGER = 0x1p53;
+
+    private CostCodec() {
+    }
+
+    static byte[] encode(double cost, RedisValueFormat format) {
+        if (format == RedisValueFormat.JSON) {
+            // Mismo texto que escribe el serializador JSON para un Double: NaN e infinitos van entre comillas
+            String text = Double.toString(cost);
+            return ascii(Double.isFinite(cost) ? text : '"' + text + '"');
+        }
+        if (cost == Math.rint(cost) && Math.abs(cost) < MAX_EXACT_INTEGER && Double.compare(cost, -0.0) != 0) {
+            return ascii(Long.toString((long) cost));
+        }
+        String text = Double.toString(cost);
+        if (text.length() < BINARY_LENGTH) {
+            return ascii(text);
+        }
+        return ByteBuffer.allocate(BINARY_LENGTH).put(BINARY_MARKER).putDouble(cost).array();
+    }
+
+    static double decode(byte[] value) {
+        if (value.length == BINARY_LENGTH && value[0] == BINARY_MARKER) {
+            return ByteBuffer.wrap(value, 1, Double.BYTES).getDouble();
+        }
+        String text = new String(value, StandardCharsets.US_ASCII);
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            // "NaN", "Infinity" o "-Infinity" en JSON
+            text = text.substring(1, text.length() - 1);
+        }
+        return Double.parseDouble(text);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
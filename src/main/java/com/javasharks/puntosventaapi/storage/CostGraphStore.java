@@ -0,0 +1,61 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.model.Charge;
+
+import java.util.List;
+
+/**
+ * Almacén del grafo de costos: aristas no dirigidas y un contador de versión monótono
+ * que avanza con cada cambio. La implementación se elige con {@code app.storage.type}.
+ * <p>
+ * El snapshot {@link CostGraph} sobre el que corren las búsquedas lo mantiene el servicio;
+ * el almacén solo tiene que poder reconstruirlo con {@link #load()} y avisar, por la versión,
+ * cuándo quedó desactualizado.
+ */
+public interface CostGraphStore {
+
+    // Resultados de addEdge cuando falta alguno de los puntos
+    long MISSING_ORIGIN = -1L;
+    long MISSING_DESTINATION = -2L;
+
+    /**
+     * Agrega o actualiza la arista {@code idA <-> idB} y avanza la versión, atómicamente.
+     * Ambos puntos de venta deben existir.
+     *
+     * @return la nueva versión, {@link #MISSING_ORIGIN} o {@link #MISSING_DESTINATION}
+     */
+    long addEdge(long idA, long idB, double cost);
+
+    /**
+     * Elimina la arista {@code idA <-> idB} y avanza la versión, atómicamente.
+     *
+     * @return la nueva versión, o {@code 0} si la arista no existía (sin cambios)
+     */
+    long removeEdge(long idA, long idB);
+
+    /**
+     * Escribe un lote de aristas ya validadas sin avanzar la versión; quien llama debe
+     * invocar {@link #bumpVersion()} al terminar.
+     *
+     * @return cuántas aristas no existían
+     */
+    int putEdges(List<Charge> charges);
+
+    /**
+     * Versión actual del grafo almacenado. Se consulta en cada lectura, así que debe ser barata.
+     */
+    long version();
+
+    long bumpVersion();
+
+    /**
+     * Grafo completo, con una versión que el contenido refleja como mínimo.
+     */
+    CostGraph load();
+
+    /**
+     * Elimina todas las aristas. Conserva la versión, que nunca retrocede.
+     */
+    void clear();
+}
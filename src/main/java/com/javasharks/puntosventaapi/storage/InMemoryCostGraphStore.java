@@ -0,0 +1,171 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.model.Charge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grafo de costos en memoria de esta instancia: adyacencias en mapas de claves primitivas
+ * ({@code id -> (vecino -> costo)}), sin objetos por arista.
+ * <p>
+ * Las escrituras toman el lock de escritura, así cada arista queda en ambos sentidos junto con
+ * su versión; {@link #load()} toma el de lectura. {@link #version()}, que se consulta en cada
+ * lectura del grafo, es una lectura volátil sin lock.
+ */
+@Component
+@ConditionalOnProperty(value = "app.storage.type", havingValue = "memory")
+public class InMemoryCostGraphStore implements CostGraphStore {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCostGraphStore.class);
+
+    private final SellingPointStore sellingPoints;
+    private final LongObjectHashMap<LongDoubleHashMap> adjacency = new LongObjectHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Entradas dirigidas (dos por arista), para dimensionar los arreglos de la carga
+    private int entries;
+    private volatile long version;
+
+    public InMemoryCostGraphStore(SellingPointStore sellingPoints) {
+        this.sellingPoints = sellingPoints;
+    }
+
+    /**
+     * Igual que en Redis, la existencia de los puntos se valida al escribir; un punto eliminado
+     * en paralelo puede quedar con aristas, como pasa allí cuando se borra después del script.
+     */
+    @Override
+    public long addEdge(long idA, long idB, double cost) {
+        if (sellingPoints.find(idA) == null) {
+            return MISSING_ORIGIN;
+        }
+        if (sellingPoints.find(idB) == null) {
+            return MISSING_DESTINATION;
+        }
+        lock.writeLock().lock();
+        try {
+            putEdge(idA, idB, cost);
+            return ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long removeEdge(long idA, long idB) {
+        lock.writeLock().lock();
+        try {
+            if (!removeEntry(idA, idB)) {
+                return 0L;
+            }
+            removeEntry(idB, idA);
+            return ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int putEdges(List<Charge> charges) {
+        lock.writeLock().lock();
+        try {
+            int inserted = 0;
+            for (Charge charge : charges) {
+                if (putEdge(charge.idSellingPointOrigin(), charge.idSellingPointDestination(), charge.value())) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public long bumpVersion() {
+        lock.writeLock().lock();
+        try {
+            return ++version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Arma el CSR directamente desde los mapas primitivos, sin pasar por {@code Map<Long, Map<Long, Double>>}.
+     */
+    @Override
+    public CostGraph load() {
+        lock.readLock().lock();
+        try {
+            long[] from = new long[entries];
+            long[] to = new long[entries];
+            double[] cost = new double[entries];
+            int[] m = {0};
+            adjacency.forEach((node, adjacents) -> adjacents.forEach((adjacent, value) -> {
+                from[m[0]] = node;
+                to[m[0]] = adjacent;
+                cost[m[0]] = value;
+                m[0]++;
+            }));
+
+            CostGraph loaded = CostGraph.fromEdges(from, to, cost, m[0]).withVersion(version);
+            log.debug("Grafo cargado desde memoria: {} nodos, {} conexiones, versión {}",
+                    loaded.nodeCount(), loaded.edgeCount(), loaded.version());
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            adjacency.clear();
+            entries = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.warn("Grafo de costos en memoria limpiado");
+    }
+
+    /**
+     * @return {@code true} si la arista no existía
+     */
+    private boolean putEdge(long idA, long idB, double cost) {
+        boolean inserted = adjacency.computeIfAbsent(idA, id -> new LongDoubleHashMap()).put(idB, cost);
+        if (inserted) {
+            entries++;
+        }
+        if (adjacency.computeIfAbsent(idB, id -> new LongDoubleHashMap()).put(idA, cost)) {
+            entries++;
+        }
+        return inserted;
+    }
+
+    /**
+     * Como un hash de Redis, un nodo sin vecinos desaparece.
+     */
+    private boolean removeEntry(long node, long adjacent) {
+        LongDoubleHashMap adjacents = adjacency.get(node);
+        if (adjacents == null || !adjacents.remove(adjacent)) {
+            return false;
+        }
+        entries--;
+        if (adjacents.isEmpty()) {
+            adjacency.remove(node);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Puntos de venta en memoria de esta instancia, sin TTL.
+ * <p>
+ * Un {@link ConcurrentSkipListMap} da lecturas sin bloqueo, escrituras atómicas por clave y
+ * el recorrido ordenado por ID que necesitan los listados y las páginas.
+ */
+@Component
+@ConditionalOnProperty(value = "app.storage.type", havingValue = "memory")
+public class InMemorySellingPointStore implements SellingPointStore {
+
+    private final ConcurrentSkipListMap<Long, SellingPoint> sellingPoints = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void replaceAll(List<SellingPoint> replacement) {
+        sellingPoints.clear();
+        replacement.forEach(pv -> sellingPoints.put(pv.id(), pv));
+    }
+
+    @Override
+    public List<SellingPoint> findAll() {
+        return new ArrayList<>(sellingPoints.values());
+    }
+
+    @Override
+    public List<SellingPoint> findPage(long desde, int limite) {
+        List<SellingPoint> page = new ArrayList<>(Math.min(limite, sellingPoints.size()));
+        for (SellingPoint sellingPoint : sellingPoints.tailMap(desde).values()) {
+            if (page.size() == limite) {
+                break;
+            }
+            page.add(sellingPoint);
+        }
+        return page;
+    }
+
+    @Override
+    public SellingPoint find(long id) {
+        return sellingPoints.get(id);
+    }
+
+    @Override
+    public Map<Long, SellingPoint> findAll(List<Long> ids) {
+        Map<Long, SellingPoint> found = new HashMap<>();
+        for (Long id : ids) {
+            SellingPoint sellingPoint = sellingPoints.get(id);
+            if (sellingPoint != null) {
+                found.put(id, sellingPoint);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean insert(SellingPoint sellingPoint) {
+        return sellingPoints.putIfAbsent(sellingPoint.id(), sellingPoint) == null;
+    }
+
+    @Override
+    public boolean update(SellingPoint sellingPoint) {
+        return sellingPoints.replace(sellingPoint.id(), sellingPoint) != null;
+    }
+
+    @Override
+    public SellingPoint delete(long id) {
+        return sellingPoints.remove(id);
+    }
+}
@@ -0,0 +1,139 @@
+package com.javasharks.puntosventaapi.storage;
+
+/**
+ * Mapa {@code long -> double} de direccionamiento abierto (sondeo lineal), sin boxing.
+ * <p>
+ * Las claves son IDs de puntos de venta, siempre positivos: el {@code 0} marca las celdas libres
+ * y no se admite como clave. Al eliminar se desplazan hacia atrás las entradas siguientes del
+ * grupo, así no quedan marcas de borrado. No es thread-safe.
+ */
+final class LongDoubleHashMap {
+
+    private static final long FREE = 0L;
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private double[] values;
+    private int mask;
+    private int size;
+
+    LongDoubleHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return {@code true} si la clave no existía
+     */
+    boolean put(long key, double value) {
+        checkKey(key);
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} si la clave existía
+     */
+    boolean remove(long key) {
+        if (key == FREE) {
+            return false;
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Recorre el grupo desde la celda liberada y adelanta cada entrada cuya posición ideal
+     * no quede entre el hueco y su celda actual.
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == FREE) {
+                break;
+            }
+            int ideal = slot(key);
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = 0.0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        return LongObjectHashMap.hash(key) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("El ID 0 no es una clave válida");
+        }
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void accept(long key, double value);
+    }
+}
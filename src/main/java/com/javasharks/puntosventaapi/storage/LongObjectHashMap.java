@@ -0,0 +1,157 @@
+package com.javasharks.puntosventaapi.storage;
+
+import java.util.function.LongFunction;
+
+/**
+ * Mapa {@code long -> V} de direccionamiento abierto (sondeo lineal), con las claves en un
+ * {@code long[]} en lugar de {@code Long} en cajas.
+ * <p>
+ * Mismas reglas que {@link LongDoubleHashMap}: el {@code 0} marca las celdas libres y no se
+ * admite como clave, y los valores no pueden ser {@code null}. No es thread-safe.
+ */
+final class LongObjectHashMap<V> {
+
+    private static final long FREE = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    LongObjectHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Mezcla los bits del ID (multiplicación de Fibonacci), para que IDs consecutivos no
+     * formen grupos largos con el sondeo lineal.
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == FREE) {
+            return null;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> factory) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        V created = factory.apply(key);
+        put(key, created);
+        return created;
+    }
+
+    void put(long key, V value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("El ID 0 no es una clave válida");
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    void remove(long key) {
+        if (key == FREE) {
+            return;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(Visitor<V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == FREE) {
+                break;
+            }
+            int ideal = hash(key) & mask;
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    interface Visitor<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,108 @@
+package com.javasharks.puntosventaapi.storage;
+
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cuenta los comandos que la aplicación envía a Redis por pedido HTTP ({@code redis.commands.per.request}).
+ * El total por comando lo publica Lettuce en {@code lettuce.command.completion} (tag {@code command}).
+ * <p>
+ * Los comandos los informa Lettuce a {@link #requestListener()} cuando los despacha, en el hilo que
+ * los envía, así que se cuentan todos: los de un pipeline uno por uno, cada tanda de un SCAN y cada
+ * intento de un script (EVALSHA, y EVAL si Redis no lo tenía cacheado).
+ * <p>
+ * El conteo por pedido se asocia al hilo con {@link #bind(RequestCount)}. El filtro de pedidos lo
+ * abre en el hilo que atiende el pedido y en el que escribe las respuestas en streaming; las
+ * tareas que un pedido reparte en otros hilos lo llevan con {@link #propagate(Callable)}. Lo que
+ * no pertenece a ningún pedido (precarga, avisos de otras instancias) solo suma al total.
+ */
+@Component
+public class RedisCommandMetrics {
+
+    // Conteo del pedido al que pertenece el trabajo del hilo; null fuera de un pedido HTTP
+    private static final ThreadLocal<RequestCount> CURRENT_REQUEST = new ThreadLocal<>();
+    private static final CommandListener REQUEST_LISTENER = new CommandListener() {
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            RequestCount current = CURRENT_REQUEST.get();
+            if (current != null) {
+                current.commands.incrementAndGet();
+            }
+        }
+    };
+
+    private final DistributionSummary perRequest;
+
+    public RedisCommandMetrics(MeterRegistry meterRegistry) {
+        this.perRequest = DistributionSummary.builder("redis.commands.per.request")
+                .description("Comandos enviados a Redis por pedido HTTP")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Listener para el cliente de Lettuce: suma cada comando al pedido asociado al hilo que lo
+     * envía. Lo que no pertenece a ningún pedido no se cuenta.
+     */
+    public static CommandListener requestListener() {
+        return REQUEST_LISTENER;
+    }
+
+    /**
+     * Registra los comandos de un pedido terminado.
+     */
+    public void recordRequest(RequestCount count) {
+        perRequest.record(count.commands.get());
+    }
+
+    /**
+     * Asocia el hilo actual al pedido {@code count} hasta cerrar el {@link Scope} devuelto.
+     */
+    public static Scope bind(RequestCount count) {
+        RequestCount previous = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.set(count);
+        return () -> {
+            if (previous != null) {
+                CURRENT_REQUEST.set(previous);
+            } else {
+                CURRENT_REQUEST.remove();
+            }
+        };
+    }
+
+    /**
+     * Envuelve {@code task} para que sus comandos cuenten en el pedido que la crea, en el hilo
+     * en que se ejecute. Fuera de un pedido devuelve la misma tarea.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        RequestCount count = CURRENT_REQUEST.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = bind(count)) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Comandos de un pedido; puede sumar desde varios hilos a la vez.
+     */
+    public static final class RequestCount {
+        private final AtomicInteger commands = new AtomicInteger();
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,247 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.model.Charge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.javasharks.puntosventaapi.config.RedisConfig.DEFAULT_TTL;
+
+/**
+ * Grafo de costos en Redis: un hash {@code costo:<id>} por punto de venta (vecino -> costo),
+ * el set {@code costo:nodos} con los IDs que tienen hash y el contador {@code costo:version},
+ * que comparten todas las instancias. Los costos se codifican con {@link CostCodec}; se leen
+ * tanto binarios como JSON.
+ */
+@Component
+@ConditionalOnProperty(value = "app.storage.type", havingValue = "redis", matchIfMissing = true)
+public class RedisCostGraphStore implements CostGraphStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCostGraphStore.class);
+
+    // Redis keys para el grafo de costos
+    private static final String COSTO_KEY_PREFIX = "costo:";
+    // Contador monótono que se incrementa con cada cambio del grafo
+    private static final String VERSION_KEY = COSTO_KEY_PREFIX + "version";
+    // IDs de los puntos que tienen aristas: la carga lee sus hashes sin recorrer el keyspace
+    private static final String NODES_KEY = COSTO_KEY_PREFIX + "nodos";
+    // Scripts que aplican una arista (ambos sentidos + versión) en un único round trip
+    private static final RedisScript<Long> ADD_CHARGE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/add-charge.lua"), Long.class);
+    private static final RedisScript<Long> REMOVE_CHARGE_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/remove-charge.lua"), Long.class);
+    private static final RedisSerializer<Long> SCRIPT_RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+    // Aristas por pipeline en la carga masiva
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisValueFormat format;
+
+    public RedisCostGraphStore(RedisTemplate<String, Object> redisTemplate,
+                               @Value("${app.storage.redis.format:compact}") RedisValueFormat format) {
+        this.redisTemplate = redisTemplate;
+        this.format = format;
+    }
+
+    /**
+     * La validación de ambos puntos, las dos escrituras, los TTL y el avance de versión corren
+     * en un único script: un round trip, y ningún lector ve la arista en un solo sentido.
+     */
+    @Override
+    public long addEdge(long idA, long idB, double cost) {
+        // Los argumentos van como bytes: el costo ya codificado llega tal cual al HSET del script
+        Long result = redisTemplate.execute(ADD_CHARGE_SCRIPT, RedisSerializer.byteArray(), SCRIPT_RESULT_SERIALIZER,
+                List.of(RedisSellingPointStore.KEY_PREFIX + idA, RedisSellingPointStore.KEY_PREFIX + idB,
+                        COSTO_KEY_PREFIX + idA, COSTO_KEY_PREFIX + idB, VERSION_KEY, NODES_KEY),
+                ascii(Long.toString(idA)), ascii(Long.toString(idB)), CostCodec.encode(cost, format),
+                ascii(String.valueOf(DEFAULT_TTL.toSeconds())));
+        return result != null ? result : MISSING_ORIGIN;
+    }
+
+    /**
+     * Ambos sentidos de la arista y el avance de versión se aplican en un único script.
+     */
+    @Override
+    public long removeEdge(long idA, long idB) {
+        Long result = redisTemplate.execute(REMOVE_CHARGE_SCRIPT, StringRedisSerializer.UTF_8, SCRIPT_RESULT_SERIALIZER,
+                List.of(COSTO_KEY_PREFIX + idA, COSTO_KEY_PREFIX + idB, VERSION_KEY, NODES_KEY),
+                Long.toString(idA), Long.toString(idB));
+        return result != null ? result : 0L;
+    }
+
+    /**
+     * Escribe las aristas en pipelines de {@value #IMPORT_BATCH_SIZE}, con un solo EXPIRE por
+     * clave y pipeline, y un SADD con los puntos de la tanda en {@code costo:nodos}.
+     */
+    @Override
+    public int putEdges(List<Charge> charges) {
+        StringRedisSerializer stringSerializer = StringRedisSerializer.UTF_8;
+        long ttlSeconds = DEFAULT_TTL.toSeconds();
+
+        int inserted = 0;
+        for (int from = 0; from < charges.size(); from += IMPORT_BATCH_SIZE) {
+            List<Charge> batch = charges.subList(from, Math.min(from + IMPORT_BATCH_SIZE, charges.size()));
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                Set<String> keys = new LinkedHashSet<>();
+                for (Charge charge : batch) {
+                    String keyA = COSTO_KEY_PREFIX + charge.idSellingPointOrigin();
+                    String keyB = COSTO_KEY_PREFIX + charge.idSellingPointDestination();
+                    byte[] value = CostCodec.encode(charge.value(), format);
+                    connection.hashCommands().hSet(stringSerializer.serialize(keyA),
+                            stringSerializer.serialize(charge.idSellingPointDestination().toString()), value);
+                    connection.hashCommands().hSet(stringSerializer.serialize(keyB),
+                            stringSerializer.serialize(charge.idSellingPointOrigin().toString()), value);
+                    keys.add(keyA);
+                    keys.add(keyB);
+                }
+                keys.forEach(key -> connection.keyCommands().expire(stringSerializer.serialize(key), ttlSeconds));
+                byte[] nodesKey = stringSerializer.serialize(NODES_KEY);
+                connection.setCommands().sAdd(nodesKey, keys.stream()
+                        .map(key -> ascii(key.substring(COSTO_KEY_PREFIX.length())))
+                        .toArray(byte[][]::new));
+                connection.keyCommands().expire(nodesKey, ttlSeconds);
+                return null;
+            });
+
+            // El primer HSET de cada arista devuelve true si el campo no existía (los HSET van primero)
+            for (int i = 0; i < batch.size(); i++) {
+                if (Boolean.TRUE.equals(results.get(2 * i))) {
+                    inserted++;
+                }
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Un único GET.
+     */
+    @Override
+    public long version() {
+        Object value = redisTemplate.opsForValue().get(VERSION_KEY);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    @Override
+    public long bumpVersion() {
+        Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * Carga el grafo completo: los IDs salen de {@code costo:nodos} y todos los hashes se piden
+     * en un único pipeline. La versión se lee antes que los IDs, así el grafo refleja al menos
+     * esa versión. Los hashes se leen como bytes crudos y los costos se decodifican directamente
+     * en los arreglos de aristas.
+     */
+    @Override
+    public CostGraph load() {
+        long version = version();
+        List<String> keys = nodeKeys();
+
+        StringRedisSerializer keySerializer = StringRedisSerializer.UTF_8;
+        // Pipeline sobre la conexión: los resultados quedan en bytes, sin pasar por los
+        // serializadores del template
+        List<Object> results = redisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            connection.openPipeline();
+            keys.forEach(key -> connection.hashCommands().hGetAll(keySerializer.serialize(key)));
+            return connection.closePipeline();
+        });
+
+        int total = 0;
+        for (Object result : results) {
+            total += result instanceof Map<?, ?> entries ? entries.size() : 0;
+        }
+        long[] from = new long[total];
+        long[] to = new long[total];
+        double[] cost = new double[total];
+        int m = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (results.get(i) instanceof Map<?, ?> entries && !entries.isEmpty()) {
+                long origin = Long.parseLong(keys.get(i).substring(COSTO_KEY_PREFIX.length()));
+                for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                    from[m] = origin;
+                    to[m] = Long.parseLong(new String((byte[]) entry.getKey(), StandardCharsets.US_ASCII));
+                    cost[m] = CostCodec.decode((byte[]) entry.getValue());
+                    m++;
+                }
+            }
+        }
+
+        CostGraph loaded = CostGraph.fromEdges(from, to, cost, m).withVersion(version);
+        log.info("Grafo cargado desde Redis: {} nodos, {} conexiones, versión {}",
+                loaded.nodeCount(), loaded.edgeCount(), version);
+        return loaded;
+    }
+
+    @Override
+    public void clear() {
+        RedisKeyScanner.delete(redisTemplate, costKeys());
+        log.warn("Grafo de costos en Redis limpiado");
+    }
+
+    /**
+     * Hashes de costos según {@code costo:nodos}. Si el set no existe (datos escritos antes de
+     * que existiera, o un grafo vacío) se recorre {@code costo:*} con SCAN y se reconstruye.
+     */
+    private List<String> nodeKeys() {
+        byte[] nodesKey = StringRedisSerializer.UTF_8.serialize(NODES_KEY);
+        Set<byte[]> members = redisTemplate.execute(
+                (RedisCallback<Set<byte[]>>) connection -> connection.setCommands().sMembers(nodesKey));
+        if (members != null && !members.isEmpty()) {
+            return members.stream()
+                    .map(member -> COSTO_KEY_PREFIX + new String(member, StandardCharsets.US_ASCII))
+                    .toList();
+        }
+
+        List<String> keys = costHashKeys();
+        if (!keys.isEmpty()) {
+            byte[][] ids = keys.stream()
+                    .map(key -> ascii(key.substring(COSTO_KEY_PREFIX.length())))
+                    .toArray(byte[][]::new);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.setCommands().sAdd(nodesKey, ids);
+                connection.keyCommands().expire(nodesKey, DEFAULT_TTL.toSeconds());
+                return null;
+            });
+            log.info("Índice {} reconstruido con {} puntos", NODES_KEY, keys.size());
+        }
+        return keys;
+    }
+
+    /**
+     * Todas las claves {@code costo:*} salvo la versión (incluido el set de nodos), con SCAN.
+     */
+    private List<String> costKeys() {
+        return RedisKeyScanner.scan(redisTemplate, COSTO_KEY_PREFIX + "*").stream()
+                .filter(key -> !key.equals(VERSION_KEY))
+                .toList();
+    }
+
+    /**
+     * Hashes de costos, con SCAN.
+     */
+    private List<String> costHashKeys() {
+        return costKeys().stream().filter(key -> !key.equals(NODES_KEY)).toList();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,39 @@
+package com.javasharks.puntosventaapi.storage;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorre claves con SCAN en lugar de KEYS, para no bloquear Redis (que es compartido)
+ * mientras se itera el keyspace.
+ */
+final class RedisKeyScanner {
+
+    // Sugerencia de claves por iteración de SCAN y por DEL
+    private static final int BATCH_SIZE = 500;
+
+    private RedisKeyScanner() {
+    }
+
+    static List<String> scan(RedisTemplate<String, Object> redisTemplate, String pattern) {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    /**
+     * Elimina las claves dadas en tandas, para que ningún DEL sea demasiado grande.
+     */
+    static void delete(RedisTemplate<String, Object> redisTemplate, List<String> keys) {
+        for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+            redisTemplate.delete(keys.subList(from, Math.min(from + BATCH_SIZE, keys.size())));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.javasharks.puntosventaapi.config.RedisConfig.DEFAULT_TTL;
+
+/**
+ * Puntos de venta en Redis: una clave {@code sellingPoint:<id>} por punto, con TTL, y un
+ * sorted set con los IDs existentes para recorrerlos en orden sin SCAN. Los valores se
+ * serializan con {@link SellingPointCodec}; el índice sigue usando el template compartido.
+ */
+@Component
+@ConditionalOnProperty(value = "app.storage.type", havingValue = "redis", matchIfMissing = true)
+public class RedisSellingPointStore implements SellingPointStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSellingPointStore.class);
+    // Visible en el paquete: los scripts de costos validan la existencia de los puntos
+    static final String KEY_PREFIX = "sellingPoint:";
+    // Sorted set con los IDs existentes (score = ID), mantenido en insert/delete
+    private static final String INDEX_KEY = KEY_PREFIX + "ids";
+    // Claves por MGET al recorrer el índice
+    private static final int FETCH_BATCH_SIZE = 500;
+    // Puntos por pipeline al reemplazar el conjunto completo
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    // Mismo pool de conexiones, con el codec de puntos de venta como serializador de valores
+    private final RedisTemplate<String, SellingPoint> valueTemplate;
+    private final SellingPointCodec codec;
+
+    public RedisSellingPointStore(RedisTemplate<String, Object> redisTemplate,
+                                  @Value("${app.storage.redis.format:compact}") RedisValueFormat format) {
+        this.redisTemplate = redisTemplate;
+
+        this.codec = new SellingPointCodec(format);
+        this.valueTemplate = new RedisTemplate<>();
+        valueTemplate.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        valueTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        valueTemplate.setValueSerializer(codec);
+        valueTemplate.afterPropertiesSet();
+        log.info("Formato de valores en Redis: {}", format);
+    }
+
+    @Override
+    public void replaceAll(List<SellingPoint> sellingPoints) {
+        // Limpiar las claves existentes (incluido el índice), recorriéndolas con SCAN
+        List<String> keys = RedisKeyScanner.scan(redisTemplate, KEY_PREFIX + "*");
+        RedisKeyScanner.delete(redisTemplate, keys);
+        log.warn("Puntos de venta en Redis limpiados");
+
+        for (int from = 0; from < sellingPoints.size(); from += WRITE_BATCH_SIZE) {
+            writeBatch(sellingPoints.subList(from, Math.min(from + WRITE_BATCH_SIZE, sellingPoints.size())));
+        }
+    }
+
+    /**
+     * Un pipeline por tanda: un SET con TTL por punto y un único ZADD con sus IDs.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBatch(List<SellingPoint> batch) {
+        StringRedisSerializer keySerializer = StringRedisSerializer.UTF_8;
+        // Mismo serializador que usa opsForZSet() para los miembros del índice
+        RedisSerializer<Object> indexSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Expiration ttl = Expiration.from(DEFAULT_TTL);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            Set<Tuple> index = new LinkedHashSet<>();
+            for (SellingPoint pv : batch) {
+                connection.stringCommands().set(keySerializer.serialize(KEY_PREFIX + pv.id()),
+                        codec.serialize(pv), ttl, RedisStringCommands.SetOption.upsert());
+                index.add(new DefaultTuple(indexSerializer.serialize(pv.id()), pv.id().doubleValue()));
+            }
+            connection.zSetCommands().zAdd(keySerializer.serialize(INDEX_KEY), index);
+            return null;
+        });
+    }
+
+    /**
+     * Recorre el índice de IDs y trae los puntos con MGET por tandas.
+     */
+    @Override
+    public List<SellingPoint> findAll() {
+        return fetchIndexed(redisTemplate.opsForZSet().range(INDEX_KEY, 0, -1));
+    }
+
+    @Override
+    public List<SellingPoint> findPage(long desde, int limite) {
+        return fetchIndexed(redisTemplate.opsForZSet()
+                .rangeByScore(INDEX_KEY, desde, Double.POSITIVE_INFINITY, 0, limite));
+    }
+
+    /**
+     * Trae los puntos de los IDs del índice, en el mismo orden. Los IDs cuyo punto ya no
+     * existe (por ejemplo, porque venció su TTL) se quitan del índice.
+     */
+    private List<SellingPoint> fetchIndexed(Set<Object> indexed) {
+        if (indexed == null || indexed.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = indexed.stream().map(id -> ((Number) id).longValue()).toList();
+
+        List<SellingPoint> sellingPoints = new ArrayList<>(ids.size());
+        List<Object> stale = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += FETCH_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + FETCH_BATCH_SIZE, ids.size()));
+            List<SellingPoint> values = valueTemplate.opsForValue().multiGet(
+                    batch.stream().map(id -> KEY_PREFIX + id).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                SellingPoint pv = values != null ? values.get(i) : null;
+                if (pv != null) {
+                    sellingPoints.add(pv);
+                } else {
+                    stale.add(batch.get(i));
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForZSet().remove(INDEX_KEY, stale.toArray());
+        }
+        return sellingPoints;
+    }
+
+    @Override
+    public SellingPoint find(long id) {
+        SellingPoint value = valueTemplate.opsForValue().get(KEY_PREFIX + id);
+        return value;
+    }
+
+    /**
+     * Un único MGET para todos los IDs.
+     */
+    @Override
+    public Map<Long, SellingPoint> findAll(List<Long> ids) {
+        List<SellingPoint> values = valueTemplate.opsForValue().multiGet(
+                ids.stream().map(id -> KEY_PREFIX + id).toList());
+
+        Map<Long, SellingPoint> found = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            SellingPoint pv = values != null ? values.get(i) : null;
+            if (pv != null) {
+                found.put(ids.get(i), pv);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * SET NX: la verificación de existencia y la escritura son un solo comando.
+     */
+    @Override
+    public boolean insert(SellingPoint sellingPoint) {
+        Boolean created = valueTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + sellingPoint.id(), sellingPoint, DEFAULT_TTL);
+        if (!Boolean.TRUE.equals(created)) {
+            return false;
+        }
+        redisTemplate.opsForZSet().add(INDEX_KEY, sellingPoint.id(), sellingPoint.id());
+        return true;
+    }
+
+    /**
+     * SET XX: solo escribe si la clave existe.
+     */
+    @Override
+    public boolean update(SellingPoint sellingPoint) {
+        Boolean updated = valueTemplate.opsForValue()
+                .setIfPresent(KEY_PREFIX + sellingPoint.id(), sellingPoint, DEFAULT_TTL);
+        if (!Boolean.TRUE.equals(updated)) {
+            return false;
+        }
+        redisTemplate.opsForZSet().add(INDEX_KEY, sellingPoint.id(), sellingPoint.id());
+        return true;
+    }
+
+    /**
+     * GETDEL: lee y elimina en un solo comando.
+     */
+    @Override
+    public SellingPoint delete(long id) {
+        SellingPoint removed = valueTemplate.opsForValue().getAndDelete(KEY_PREFIX + id);
+        if (removed == null) {
+            return null;
+        }
+        redisTemplate.opsForZSet().remove(INDEX_KEY, id);
+        return removed;
+    }
+}
@@ -0,0 +1,18 @@
+package com.javasharks.puntosventaapi.storage;
+
+/**
+ * Formato en que se escriben en Redis los puntos de venta y los costos
+ * ({@code app.storage.redis.format}). La lectura acepta siempre ambos.
+ */
+public enum RedisValueFormat {
+    /**
+     * JSON de {@code GenericJackson2JsonRedisSerializer}, el formato original. Sirve durante un
+     * despliegue gradual, mientras queden instancias que solo leen JSON.
+     */
+    JSON,
+    /**
+     * Binario versionado para los puntos de venta ({@link SellingPointCodec}) y la forma más
+     * corta de cada costo ({@link CostCodec}).
+     */
+    COMPACT
+}
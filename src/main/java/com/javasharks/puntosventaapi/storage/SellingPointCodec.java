@@ -0,0 +1,57 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializador de los valores {@code sellingPoint:<id>}.
+ * <p>
+ * Formato binario versión 1: {@code [0x01][id: 8 bytes big-endian][nombre en UTF-8 hasta el final]}.
+ * El primer byte es la versión del formato; un JSON siempre empieza con {@code '{'}, así que los
+ * valores escritos antes (con {@code @class} incluido) se siguen leyendo con el serializador JSON.
+ */
+public final class SellingPointCodec implements RedisSerializer<SellingPoint> {
+
+    static final byte VERSION_1 = 0x01;
+    private static final int HEADER_LENGTH = 1 + Long.BYTES;
+
+    private final RedisValueFormat format;
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    public SellingPointCodec(RedisValueFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(SellingPoint sellingPoint) {
+        if (sellingPoint == null) {
+            return null;
+        }
+        if (format == RedisValueFormat.JSON) {
+            return json.serialize(sellingPoint);
+        }
+        byte[] nombre = sellingPoint.nombre().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(HEADER_LENGTH + nombre.length)
+                .put(VERSION_1)
+                .putLong(sellingPoint.id())
+                .put(nombre)
+                .array();
+    }
+
+    @Override
+    public SellingPoint deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == VERSION_1) {
+            long id = ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+            String nombre = new String(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+            return new SellingPoint(id, nombre);
+        }
+        return json.deserialize(bytes) instanceof SellingPoint pv ? pv : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.model.SellingPoint;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacén de puntos de venta. La implementación se elige con {@code app.storage.type}.
+ * <p>
+ * Las operaciones de escritura son atómicas por punto de venta: {@link #insert(SellingPoint)}
+ * y {@link #update(SellingPoint)} deciden la existencia y escriben en un solo paso.
+ * El caché local, los eventos y los avisos entre instancias quedan en el servicio.
+ */
+public interface SellingPointStore {
+
+    /**
+     * Reemplaza todo el contenido por los puntos dados.
+     */
+    void replaceAll(List<SellingPoint> sellingPoints);
+
+    /**
+     * Todos los puntos de venta, ordenados por ID.
+     */
+    List<SellingPoint> findAll();
+
+    /**
+     * Hasta {@code limite} puntos con ID mayor o igual a {@code desde}, ordenados por ID.
+     */
+    List<SellingPoint> findPage(long desde, int limite);
+
+    /**
+     * @return el punto de venta, o {@code null} si no existe
+     */
+    SellingPoint find(long id);
+
+    /**
+     * Busca varios puntos a la vez; los inexistentes no figuran en el resultado.
+     */
+    Map<Long, SellingPoint> findAll(List<Long> ids);
+
+    /**
+     * @return {@code false} si ya existía un punto con ese ID (no se escribe nada)
+     */
+    boolean insert(SellingPoint sellingPoint);
+
+    /**
+     * @return {@code false} si no existía un punto con ese ID (no se escribe nada)
+     */
+    boolean update(SellingPoint sellingPoint);
+
+    /**
+     * @return el punto eliminado, o {@code null} si no existía
+     */
+    SellingPoint delete(long id);
+}
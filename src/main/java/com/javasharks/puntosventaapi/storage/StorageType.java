@@ -0,0 +1,16 @@
+package com.javasharks.puntosventaapi.storage;
+
+/**
+ * Backend de los puntos de venta y del grafo de costos ({@code app.storage.type}).
+ */
+public enum StorageType {
+    /**
+     * Redis compartido entre instancias, con avisos de cambio por pub/sub.
+     */
+    REDIS,
+    /**
+     * Mapas concurrentes en el heap de cada instancia: sin Redis, sin persistencia
+     * ni coordinación entre instancias.
+     */
+    MEMORY
+}
@@ -0,0 +1,17 @@
+-- Agrega o actualiza la arista bidireccional A <-> B y avanza la versión del grafo, atómicamente.
+-- KEYS: sellingPoint:A, sellingPoint:B, costo:A, costo:B, costo:version, costo:nodos
+-- ARGV: idA, idB, costo ya codificado (ver CostCodec), TTL en segundos
+-- Devuelve la nueva versión, -1 si no existe A o -2 si no existe B.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    return -2
+end
+redis.call('HSET', KEYS[3], ARGV[2], ARGV[3])
+redis.call('HSET', KEYS[4], ARGV[1], ARGV[3])
+redis.call('EXPIRE', KEYS[3], ARGV[4])
+redis.call('EXPIRE', KEYS[4], ARGV[4])
+redis.call('SADD', KEYS[6], ARGV[1], ARGV[2])
+redis.call('EXPIRE', KEYS[6], ARGV[4])
+return redis.call('INCR', KEYS[5])
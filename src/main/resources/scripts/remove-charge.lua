@@ -0,0 +1,16 @@
+-- Elimina la arista bidireccional A <-> B y avanza la versión del grafo, atómicamente.
+-- KEYS: costo:A, costo:B, costo:version, costo:nodos
+-- ARGV: idA, idB
+-- Devuelve la nueva versión, o 0 si la arista no existía (sin cambios).
+if redis.call('HDEL', KEYS[1], ARGV[2]) == 0 then
+    return 0
+end
+redis.call('HDEL', KEYS[2], ARGV[1])
+-- Redis borra el hash que queda vacío: el punto deja de tener aristas
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('SREM', KEYS[4], ARGV[1])
+end
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    redis.call('SREM', KEYS[4], ARGV[2])
+end
+return redis.call('INCR', KEYS[3])
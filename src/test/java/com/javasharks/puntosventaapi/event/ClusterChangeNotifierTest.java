@@ -0,0 +1,163 @@
+package com.javasharks.puntosventaapi.event;
+
+import com.javasharks.puntosventaapi.PuntosVentaApiApplication;
+import com.javasharks.puntosventaapi.dto.MinDistanceResponse;
+import com.javasharks.puntosventaapi.model.Charge;
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.web.client.RestTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos instancias de la aplicación (dos contextos) sobre el mismo Redis y la misma base: lo que
+ * escribe una tiene que invalidar las cachés locales de la otra a través del canal pub/sub.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ClusterChangeNotifierTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static ConfigurableApplicationContext contextA;
+    private static ConfigurableApplicationContext contextB;
+    private static String urlA;
+    private static String urlB;
+    private static final List<ChargeChangedEvent> receivedByA = new CopyOnWriteArrayList<>();
+    private static final List<ChargeChangedEvent> receivedByB = new CopyOnWriteArrayList<>();
+    private static final List<SellingPointChangedEvent> sellingPointsChangedOnB = new CopyOnWriteArrayList<>();
+
+    private final RestTemplate http = new RestTemplate();
+
+    @BeforeAll
+    static void startInstances() {
+        contextA = start();
+        contextB = start();
+        urlA = "http://localhost:" + contextA.getEnvironment().getProperty("local.server.port");
+        urlB = "http://localhost:" + contextB.getEnvironment().getProperty("local.server.port");
+        // Después del arranque: la recarga inicial de B también llega a A como aviso
+        contextA.addApplicationListener(recorder(receivedByA));
+        contextB.addApplicationListener(recorder(receivedByB));
+        contextB.addApplicationListener(event -> {
+            if (event instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof SellingPointChangedEvent change) {
+                sellingPointsChangedOnB.add(change);
+            }
+        });
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (contextB != null) {
+            contextB.close();
+        }
+        if (contextA != null) {
+            contextA.close();
+        }
+    }
+
+    @Test
+    void updateOnOneInstanceInvalidatesTheOtherNearCache() throws InterruptedException {
+        // B deja el punto en su caché local (TTL de minutos: solo el aviso puede invalidarlo)
+        assertThat(http.getForObject(urlB + "/api/puntos-venta/7", SellingPoint.class).nombre())
+                .isEqualTo("Salta");
+
+        http.put(urlA + "/api/puntos-venta/7", new SellingPoint(7L, "Salta Capital"));
+
+        await("B sigue leyendo el nombre anterior",
+                () -> http.getForObject(urlB + "/api/puntos-venta/7", SellingPoint.class).nombre()
+                        .equals("Salta Capital"));
+    }
+
+    @Test
+    void updateOnOneInstanceInvalidatesTheOtherPathCache() throws InterruptedException {
+        String path = "/api/costos/camino-minimo?origen=4&destino=5";
+        // La versión del grafo no cambia con un punto de venta: la entrada de B solo se va por el aviso
+        assertThat(http.getForObject(urlB + path, MinDistanceResponse.class).puntoVentaDestinoNombre())
+                .isEqualTo("Córdoba");
+
+        http.put(urlA + "/api/puntos-venta/5", new SellingPoint(5L, "Córdoba Capital"));
+
+        await("B sigue respondiendo el camino con el nombre anterior",
+                () -> http.getForObject(urlB + path, MinDistanceResponse.class).puntoVentaDestinoNombre()
+                        .equals("Córdoba Capital"));
+    }
+
+    @Test
+    void createOnOneInstanceReachesTheOther() throws InterruptedException {
+        http.postForObject(urlA + "/api/puntos-venta", new SellingPoint(100L, "Ushuaia"), SellingPoint.class);
+
+        await("B no recibió el alta de A",
+                () -> sellingPointsChangedOnB.stream().anyMatch(e -> Long.valueOf(100L).equals(e.id())));
+        assertThat(http.getForObject(urlB + "/api/puntos-venta/100", SellingPoint.class).nombre())
+                .isEqualTo("Ushuaia");
+    }
+
+    @Test
+    void chargeChangeReachesTheOtherInstanceOnly() throws InterruptedException {
+        String path = "/api/costos/camino-minimo?origen=8&destino=9";
+        assertThat(http.getForObject(urlB + path, MinDistanceResponse.class).costoTotal()).isEqualTo(11.0);
+
+        http.postForObject(urlA + "/api/costos", new Charge(8L, 9L, 4.0), Charge.class);
+
+        await("B no recibió el cambio de A", () -> containsEdge(receivedByB, 8L, 9L));
+        assertThat(http.getForObject(urlB + path, MinDistanceResponse.class).costoTotal()).isEqualTo(4.0);
+
+        // Un aviso de B en el mismo canal: cuando A lo recibe, el suyo (anterior) ya tendría que haber llegado
+        http.postForObject(urlB + "/api/costos", new Charge(6L, 7L, 30.0), Charge.class);
+        await("A no recibió el cambio de B", () -> containsEdge(receivedByA, 6L, 7L));
+        assertThat(containsEdge(receivedByA, 8L, 9L)).as("A procesó su propio aviso").isFalse();
+        assertThat(containsEdge(receivedByB, 6L, 7L)).as("B procesó su propio aviso").isFalse();
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(PuntosVentaApiApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(6379));
+    }
+
+    private static ApplicationListener<ApplicationEvent> recorder(List<ChargeChangedEvent> events) {
+        return event -> {
+            if (event instanceof PayloadApplicationEvent<?> payload
+                    && payload.getPayload() instanceof ChargeChangedEvent change) {
+                events.add(change);
+            }
+        };
+    }
+
+    private static boolean containsEdge(List<ChargeChangedEvent> events, Long idA, Long idB) {
+        return events.stream().anyMatch(e -> idA.equals(e.idA()) && idB.equals(e.idB()));
+    }
+
+    private static void await(String description, Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.get()) {
+            assertThat(System.nanoTime()).as(description).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.javasharks.puntosventaapi.export;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exporta un millón de acreditaciones por {@code /api/acreditaciones/export} con el heap acotado
+ * a 64 MB: si el exportador o la respuesta acumularan las filas, la corrida termina en
+ * {@link OutOfMemoryError}.
+ * <p>
+ * Corre en una ejecución propia de surefire con {@code -Xmx64m} (grupo {@code heap}, ver el pom);
+ * la ejecución por defecto lo excluye.
+ */
+@Tag("heap")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // Sin Redis: puntos de venta y grafo en memoria, la exportación solo lee la base
+        properties = "app.storage.type=memory")
+class AccreditationExportHeapTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_HEAP = 64L * 1024 * 1024;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportsAMillionRowsWithCappedHeap() throws Exception {
+        assertThat(Runtime.getRuntime().maxMemory()).as("heap sin acotar: falta -Xmx64m")
+                .isLessThanOrEqualTo(MAX_HEAP);
+        jdbcTemplate.update("""
+                INSERT INTO acreditaciones (id, amount, selling_point_id, nm_selling_point, created_at)
+                SELECT g, (g % 1000) + 0.25, g % 10 + 1, 'Punto de venta ' || (g % 10 + 1),
+                       TIMESTAMP '2024-01-01' + g * INTERVAL '1 second'
+                FROM generate_series(1, ?) AS g
+                """, ROWS);
+
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/acreditaciones/export?formato=NDJSON")).build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        LineCounter lines = new LineCounter();
+        try (InputStream body = response.body()) {
+            body.transferTo(lines);
+        }
+        assertThat(lines.count).isEqualTo(ROWS);
+    }
+
+    /**
+     * Descarta lo que recibe y solo cuenta las líneas (una por acreditación en NDJSON).
+     */
+    private static final class LineCounter extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                count++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    count++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.javasharks.puntosventaapi.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AllPairsTableTest {
+
+    private static final int NODES = 40;
+
+    @Test
+    void incrementalRepairsMatchFullRebuild() {
+        // Costos grandes y fraccionarios: el error de redondeo de las sumas supera cualquier cota absoluta chica
+        assertRepairsMatchRebuild(new Random(1), 1e9);
+    }
+
+    @Test
+    void incrementalRepairsMatchFullRebuildWithSmallCosts() {
+        assertRepairsMatchRebuild(new Random(2), 10);
+    }
+
+    private static void assertRepairsMatchRebuild(Random random, double scale) {
+        CostGraph graph = randomGraph(random, scale);
+        AllPairsTable table = AllPairsTable.build(graph);
+
+        for (int step = 0; step < 400; step++) {
+            long a = 1 + random.nextInt(NODES);
+            long b = 1 + random.nextInt(NODES);
+            if (a == b) {
+                continue;
+            }
+            int u = graph.indexOf(a);
+            int v = graph.indexOf(b);
+            double oldCost = graph.edgeWeight(u, v);
+
+            CostGraph updated;
+            AllPairsTable.Repair repair;
+            if (!Double.isNaN(oldCost) && random.nextInt(4) == 0) {
+                updated = graph.withoutEdge(a, b);
+                repair = table.withEdgeIncreased(updated, u, v, oldCost);
+            } else {
+                double newCost = Double.isNaN(oldCost) || random.nextBoolean()
+                        ? randomCost(random, scale)
+                        // Cambios chicos respecto del costo actual, en ambos sentidos
+                        : oldCost * (1 + (random.nextDouble() - 0.5) * 1e-3);
+                updated = graph.withEdge(a, b, newCost);
+                repair = Double.isNaN(oldCost) || newCost <= oldCost
+                        ? table.withEdgeDecreased(updated, u, v, newCost)
+                        : table.withEdgeIncreased(updated, u, v, oldCost);
+            }
+
+            graph = updated;
+            table = repair.table();
+            assertSameDistances(table, AllPairsTable.build(graph), step);
+        }
+    }
+
+    private static void assertSameDistances(AllPairsTable repaired, AllPairsTable rebuilt, int step) {
+        CostGraph graph = rebuilt.graph();
+        for (int s = 0; s < graph.nodeCount(); s++) {
+            for (int t = 0; t < graph.nodeCount(); t++) {
+                double expected = rebuilt.distance(s, t);
+                double actual = repaired.distance(s, t);
+                String where = "paso " + step + ", " + graph.idAt(s) + " -> " + graph.idAt(t);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertThat(actual).as(where).isEqualTo(Double.POSITIVE_INFINITY);
+                    assertThat(repaired.nextHop(s, t)).as(where).isEqualTo(-1);
+                    continue;
+                }
+                assertThat(actual).as(where).isCloseTo(expected, within(1e-7 * Math.max(1, expected)));
+
+                // El camino desenrollado existe en el grafo y suma la distancia informada
+                List<Long> path = repaired.path(s, t);
+                assertThat(path).as(where).isNotNull();
+                double cost = 0;
+                for (int i = 1; i < path.size(); i++) {
+                    double weight = graph.edgeWeight(graph.indexOf(path.get(i - 1)), graph.indexOf(path.get(i)));
+                    assertThat(weight).as(where).isNotNaN();
+                    cost += weight;
+                }
+                assertThat(cost).as(where).isCloseTo(expected, within(1e-7 * Math.max(1, expected)));
+            }
+        }
+    }
+
+    private static CostGraph randomGraph(Random random, double scale) {
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>();
+        for (long id = 1; id <= NODES; id++) {
+            adjacency.computeIfAbsent(id, k -> new HashMap<>());
+        }
+        for (int i = 0; i < NODES * 2; i++) {
+            long a = 1 + random.nextInt(NODES);
+            long b = 1 + random.nextInt(NODES);
+            if (a != b) {
+                double cost = randomCost(random, scale);
+                adjacency.get(a).put(b, cost);
+                adjacency.get(b).put(a, cost);
+            }
+        }
+        // Nodos aislados no figuran en el grafo: se los conecta en cadena para conservar los índices
+        for (long id = 1; id < NODES; id++) {
+            if (adjacency.get(id).isEmpty()) {
+                double cost = randomCost(random, scale);
+                adjacency.get(id).put(id + 1, cost);
+                adjacency.get(id + 1).put(id, cost);
+            }
+        }
+        if (adjacency.get((long) NODES).isEmpty()) {
+            adjacency.get((long) NODES).put(1L, scale);
+            adjacency.get(1L).put((long) NODES, scale);
+        }
+        return CostGraph.fromAdjacency(adjacency);
+    }
+
+    private static double randomCost(Random random, double scale) {
+        return scale * (0.01 + random.nextDouble());
+    }
+}
@@ -0,0 +1,145 @@
+package com.javasharks.puntosventaapi.graph;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectivityIndexTest {
+
+    @Test
+    void unionsMatchBfsWithoutRebuilding() {
+        Random random = new Random(1);
+        // Más de un bloque de los arreglos persistentes
+        int nodes = 1200;
+        CostGraph graph = chain(nodes, 0);
+        ConnectivityIndex index = ConnectivityIndex.build(graph);
+        ConnectivityIndex first = index;
+
+        for (int step = 0; step < 1500; step++) {
+            long a = 1 + random.nextInt(nodes);
+            long b = 1 + random.nextInt(nodes);
+            if (a == b) {
+                continue;
+            }
+            CostGraph updated = graph.withEdge(a, b, 1.0);
+            index = index.withEdge(updated, updated.indexOf(a), updated.indexOf(b));
+            graph = updated;
+            if (step % 100 == 0) {
+                assertMatchesBfs(index, graph);
+            }
+        }
+        assertMatchesBfs(index, graph);
+
+        // Las versiones anteriores no cambian
+        assertMatchesBfs(first, first.graph());
+    }
+
+    @Test
+    void graphConnectivityMatchesBfsAfterRandomAddsAndRemoves() {
+        Random random = new Random(2);
+        int nodes = 300;
+        GraphConnectivity connectivity = new GraphConnectivity(new SimpleMeterRegistry());
+        CostGraph graph = chain(nodes, 150);
+        connectivity.graphChanged(graph);
+
+        for (int step = 0; step < 2000; step++) {
+            // Algunos IDs quedan fuera del grafo: agregar esas aristas suma nodos
+            long a = 1 + random.nextInt(nodes + 20);
+            long b = 1 + random.nextInt(nodes + 20);
+            if (a == b) {
+                continue;
+            }
+            int u = graph.indexOf(a);
+            int v = graph.indexOf(b);
+            boolean exists = u >= 0 && v >= 0 && !Double.isNaN(graph.edgeWeight(u, v));
+            CostGraph updated = exists && random.nextInt(3) > 0
+                    ? graph.withoutEdge(a, b)
+                    : graph.withEdge(a, b, 1.0);
+            connectivity.edgeChanged(graph, updated, a, b);
+            graph = updated;
+
+            if (step % 50 == 0) {
+                assertMatchesBfs(connectivity.indexFor(graph), graph);
+            }
+            u = graph.indexOf(a);
+            v = graph.indexOf(b);
+            int[] component = bfsComponents(graph);
+            assertThat(connectivity.connected(graph, a, b))
+                    .isEqualTo(u >= 0 && v >= 0 && component[u] == component[v]);
+        }
+    }
+
+    private static void assertMatchesBfs(ConnectivityIndex index, CostGraph graph) {
+        int[] component = bfsComponents(graph);
+        int n = graph.nodeCount();
+        for (int u = 0; u < n; u++) {
+            for (int v = u; v < n; v += 7) {
+                assertThat(index.connected(u, v)).as("%d - %d", graph.idAt(u), graph.idAt(v))
+                        .isEqualTo(component[u] == component[v]);
+            }
+        }
+
+        Map<Integer, Integer> sizes = new HashMap<>();
+        for (int c : component) {
+            sizes.merge(c, 1, Integer::sum);
+        }
+        List<Integer> expected = new ArrayList<>(sizes.values());
+        expected.sort((x, y) -> y - x);
+        assertThat(index.components().stream().map(List::size).toList()).isEqualTo(expected);
+    }
+
+    private static int[] bfsComponents(CostGraph graph) {
+        int n = graph.nodeCount();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int next = 0;
+        for (int start = 0; start < n; start++) {
+            if (component[start] >= 0) {
+                continue;
+            }
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            component[start] = next;
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                    int adjacent = graph.target(e);
+                    if (component[adjacent] < 0) {
+                        component[adjacent] = next;
+                        queue.add(adjacent);
+                    }
+                }
+            }
+            next++;
+        }
+        return component;
+    }
+
+    /**
+     * Pares {@code 2k-1 <-> 2k} más una cadena entre los primeros {@code linked} nodos.
+     */
+    private static CostGraph chain(int nodes, int linked) {
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>();
+        for (long id = 1; id + 1 <= nodes; id += 2) {
+            link(adjacency, id, id + 1);
+        }
+        for (long id = 1; id < linked; id++) {
+            link(adjacency, id, id + 1);
+        }
+        return CostGraph.fromAdjacency(adjacency);
+    }
+
+    private static void link(Map<Long, Map<Long, Double>> adjacency, long a, long b) {
+        adjacency.computeIfAbsent(a, k -> new HashMap<>()).put(b, 1.0);
+        adjacency.computeIfAbsent(b, k -> new HashMap<>()).put(a, 1.0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.javasharks.puntosventaapi.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedMinHeapTest {
+
+    @Test
+    void pollOrderMatchesPriorityQueue() {
+        Random random = new Random(1);
+        int nodes = 1000;
+        IndexedMinHeap heap = new IndexedMinHeap();
+        heap.ensureCapacity(nodes);
+        PriorityQueue<Double> expected = new PriorityQueue<>();
+
+        for (int node = 0; node < nodes; node++) {
+            // Pocas claves distintas para forzar empates
+            double key = random.nextInt(50);
+            heap.offer(node, key);
+            expected.add(key);
+        }
+
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!expected.isEmpty()) {
+            assertThat(heap.isEmpty()).isFalse();
+            double key = expected.poll();
+            assertThat(heap.peekKey()).isEqualTo(key);
+            heap.poll();
+            assertThat(key).isGreaterThanOrEqualTo(previous);
+            previous = key;
+        }
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void decreaseKeyMatchesReferenceModel() {
+        Random random = new Random(2);
+        int nodes = 300;
+        IndexedMinHeap heap = new IndexedMinHeap();
+        heap.ensureCapacity(nodes);
+        // Modelo: clave actual de cada nodo encolado (NaN si no está)
+        double[] model = new double[nodes];
+        Arrays.fill(model, Double.NaN);
+
+        for (int step = 0; step < 50_000; step++) {
+            if (random.nextInt(3) > 0) {
+                int node = random.nextInt(nodes);
+                double key = random.nextDouble() * 100;
+                heap.offer(node, key);
+                // Inserta, o baja la clave; una clave mayor se ignora
+                if (Double.isNaN(model[node]) || key < model[node]) {
+                    model[node] = key;
+                }
+            } else if (!heap.isEmpty()) {
+                double min = Arrays.stream(model).filter(k -> !Double.isNaN(k)).min().orElseThrow();
+                assertThat(heap.peekKey()).isEqualTo(min);
+                int node = heap.poll();
+                assertThat(model[node]).isEqualTo(min);
+                model[node] = Double.NaN;
+            }
+            assertThat(heap.isEmpty()).isEqualTo(Arrays.stream(model).allMatch(Double::isNaN));
+        }
+    }
+
+    @Test
+    void clearAllowsReuse() {
+        IndexedMinHeap heap = new IndexedMinHeap();
+        heap.ensureCapacity(10);
+        for (int node = 0; node < 10; node++) {
+            heap.offer(node, 10 - node);
+        }
+        heap.poll();
+        heap.clear();
+        assertThat(heap.isEmpty()).isTrue();
+
+        // Los nodos que quedaron en el heap vuelven a insertarse como nuevos, aun con clave mayor
+        heap.offer(3, 50.0);
+        heap.offer(7, 20.0);
+        heap.offer(3, 60.0);
+        assertThat(pollAll(heap)).containsExactly(7, 3);
+
+        // Crecer descarta el contenido anterior
+        heap.offer(1, 1.0);
+        heap.ensureCapacity(20);
+        assertThat(heap.isEmpty()).isTrue();
+        heap.offer(15, 2.0);
+        heap.offer(1, 3.0);
+        assertThat(pollAll(heap)).containsExactly(15, 1);
+    }
+
+    @Test
+    void tiesAreAllReturned() {
+        IndexedMinHeap heap = new IndexedMinHeap();
+        heap.ensureCapacity(5);
+        for (int node = 0; node < 5; node++) {
+            heap.offer(node, 1.0);
+        }
+        List<Integer> polled = pollAll(heap);
+        polled.sort(Comparator.naturalOrder());
+        assertThat(polled).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    private static List<Integer> pollAll(IndexedMinHeap heap) {
+        List<Integer> polled = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            polled.add(heap.poll());
+        }
+        return polled;
+    }
+}
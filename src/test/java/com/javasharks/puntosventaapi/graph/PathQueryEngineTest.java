@@ -0,0 +1,125 @@
+package com.javasharks.puntosventaapi.graph;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PathQueryEngineTest {
+
+    private static final int NODES = 200;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PathQueryEngine engine = new PathQueryEngine(meterRegistry, PathAlgorithm.ALT, 4);
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void previousLandmarksKeepServingAfterIncreasesAndRemovals() throws InterruptedException {
+        Random random = new Random(3);
+        CostGraph graph = randomGraph(random).withVersion(1);
+        engine.graphChanged(graph);
+        awaitLandmarks(graph);
+
+        for (int step = 2; step < 300; step++) {
+            long a = 1 + random.nextInt(NODES);
+            int u = graph.indexOf(a);
+            if (graph.firstEdge(u) == graph.endEdge(u)) {
+                continue;
+            }
+            int e = graph.firstEdge(u) + random.nextInt(graph.endEdge(u) - graph.firstEdge(u));
+            long b = graph.idAt(graph.target(e));
+            CostGraph updated = (random.nextInt(3) == 0
+                    ? graph.withoutEdge(a, b)
+                    : graph.withEdge(a, b, graph.weight(e) * (1 + 5 * random.nextDouble())))
+                    .withVersion(step);
+
+            engine.edgeChanged(graph, updated, a, b);
+            graph = updated;
+
+            // Sin esperar la reconstrucción: ALT ya puede responder con los landmarks anteriores
+            assertThat(engine.landmarksReady(graph)).as("paso %d", step).isTrue();
+            assertSameAsDijkstra(graph, random, step);
+        }
+        // Ninguna consulta ALT cayó en la búsqueda bidireccional
+        assertThat(meterRegistry.get("graph.search.settled").tag("algorithm", "bidirectional").summary().count())
+                .isZero();
+    }
+
+    @Test
+    void decreaseFallsBackUntilLandmarksAreRebuilt() throws InterruptedException {
+        Random random = new Random(4);
+        CostGraph graph = randomGraph(random).withVersion(1);
+        engine.graphChanged(graph);
+        awaitLandmarks(graph);
+
+        for (int step = 2; step < 100; step++) {
+            long a = 1 + random.nextInt(NODES);
+            long b = 1 + random.nextInt(NODES);
+            if (a == b) {
+                continue;
+            }
+            CostGraph updated = graph.withEdge(a, b, 0.01 + random.nextDouble()).withVersion(step);
+            engine.edgeChanged(graph, updated, a, b);
+            graph = updated;
+
+            // Con o sin landmarks nuevos la respuesta tiene que ser la de Dijkstra
+            assertSameAsDijkstra(graph, random, step);
+        }
+        awaitLandmarks(graph);
+        assertSameAsDijkstra(graph, random, -1);
+    }
+
+    private void assertSameAsDijkstra(CostGraph graph, Random random, int step) {
+        for (int i = 0; i < 20; i++) {
+            long origen = 1 + random.nextInt(NODES);
+            long destino = 1 + random.nextInt(NODES);
+            PathSearchResult expected = engine.search(graph, origen, destino, PathAlgorithm.DIJKSTRA);
+            PathSearchResult actual = engine.search(graph, origen, destino, PathAlgorithm.ALT);
+            String where = "paso " + step + ", " + origen + " -> " + destino;
+            assertThat(actual.alcanzable()).as(where).isEqualTo(expected.alcanzable());
+            if (expected.alcanzable()) {
+                assertThat(actual.costoTotal()).as(where)
+                        .isCloseTo(expected.costoTotal(), within(1e-9 * Math.max(1, expected.costoTotal())));
+            }
+        }
+    }
+
+    private void awaitLandmarks(CostGraph graph) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!engine.landmarksReady(graph)) {
+            assertThat(System.nanoTime()).as("landmarks sin calcular").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static CostGraph randomGraph(Random random) {
+        Map<Long, Map<Long, Double>> adjacency = new HashMap<>();
+        for (long id = 1; id <= NODES; id++) {
+            // Una cadena para que estén todos los nodos, más aristas al azar
+            long next = id == NODES ? 1 : id + 1;
+            double cost = 1 + random.nextDouble() * 10;
+            adjacency.computeIfAbsent(id, k -> new HashMap<>()).put(next, cost);
+            adjacency.computeIfAbsent(next, k -> new HashMap<>()).put(id, cost);
+        }
+        for (int i = 0; i < NODES * 2; i++) {
+            long a = 1 + random.nextInt(NODES);
+            long b = 1 + random.nextInt(NODES);
+            if (a != b) {
+                double cost = 1 + random.nextDouble() * 10;
+                adjacency.get(a).put(b, cost);
+                adjacency.get(b).put(a, cost);
+            }
+        }
+        return CostGraph.fromAdjacency(adjacency);
+    }
+}
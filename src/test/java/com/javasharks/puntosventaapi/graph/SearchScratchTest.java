@@ -0,0 +1,83 @@
+package com.javasharks.puntosventaapi.graph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchScratchTest {
+
+    @Test
+    void prepareResetsTouchedNodes() {
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            SearchScratch scratch = lease.prepare(SearchScratch.FORWARD, 100);
+            assertClean(scratch, 100);
+
+            scratch.update(5, 1.5, 4);
+            scratch.update(5, 1.0, 3);
+            scratch.update(90, 7.0, 5);
+            scratch.settle(5);
+            scratch.heap.offer(90, 7.0);
+
+            scratch = lease.prepare(SearchScratch.FORWARD, 100);
+            assertClean(scratch, 100);
+        }
+    }
+
+    @Test
+    void smallerGraphThenLargerOneStaysClean() {
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            SearchScratch scratch = lease.prepare(SearchScratch.FORWARD, 100);
+            scratch.update(90, 3.0, 1);
+            scratch.settle(90);
+
+            // Un grafo más chico no llega a ver el nodo 90, pero igual se limpia
+            scratch = lease.prepare(SearchScratch.FORWARD, 50);
+            assertClean(scratch, 50);
+            scratch.update(10, 2.0, 0);
+
+            scratch = lease.prepare(SearchScratch.FORWARD, 100);
+            assertClean(scratch, 100);
+
+            // Y uno más grande reasigna los buffers
+            scratch.update(99, 1.0, 0);
+            scratch = lease.prepare(SearchScratch.FORWARD, 500);
+            assertClean(scratch, 500);
+        }
+    }
+
+    @Test
+    void slotsAreIndependent() {
+        try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+            SearchScratch forward = lease.prepare(SearchScratch.FORWARD, 10);
+            SearchScratch backward = lease.prepare(SearchScratch.BACKWARD, 10);
+            assertThat(forward).isNotSameAs(backward);
+
+            forward.update(1, 1.0, 0);
+            assertThat(backward.distance(1)).isEqualTo(Double.POSITIVE_INFINITY);
+        }
+    }
+
+    @Test
+    void returnedBuffersAreCleanOnNextLease() {
+        for (int round = 0; round < 5; round++) {
+            try (SearchScratch.Lease lease = SearchScratch.acquire()) {
+                SearchScratch scratch = lease.prepare(SearchScratch.BACKWARD, 64);
+                assertClean(scratch, 64);
+                for (int node = 0; node < 64; node += 3) {
+                    scratch.update(node, node, node - 1);
+                    scratch.settle(node);
+                    scratch.heap.offer(node, node);
+                }
+            }
+        }
+    }
+
+    private static void assertClean(SearchScratch scratch, int nodes) {
+        assertThat(scratch.heap.isEmpty()).isTrue();
+        for (int node = 0; node < nodes; node++) {
+            assertThat(scratch.distance(node)).isEqualTo(Double.POSITIVE_INFINITY);
+            assertThat(scratch.predecessor(node)).isEqualTo(-1);
+            assertThat(scratch.isSettled(node)).isFalse();
+        }
+    }
+}
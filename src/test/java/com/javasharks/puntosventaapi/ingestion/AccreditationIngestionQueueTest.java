@@ -0,0 +1,112 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.model.Accreditation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccreditationIngestionQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccreditationIngestionQueue queue;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void retriesAFailedBatchInsteadOfDroppingIt() throws Exception {
+        FailingWriter writer = new FailingWriter(3);
+        queue = start(writer, 5);
+
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            written.add(queue.submit(accreditation(id)));
+        }
+        // Las que llegan mientras se reintenta el primer lote también se escriben
+        Thread.sleep(20);
+        for (long id = 11; id <= 20; id++) {
+            written.add(queue.submit(accreditation(id)));
+        }
+
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(writer.failures.get()).isEqualTo(3);
+        assertThat(writer.written).containsExactlyInAnyOrderElementsOf(ids(1, 20));
+        assertThat(meterRegistry.counter("acreditaciones.ingesta.reintentos").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.counter("acreditaciones.ingesta.descartadas").count()).isZero();
+    }
+
+    @Test
+    void discardsOnlyAfterExhaustingTheRetries() throws Exception {
+        FailingWriter writer = new FailingWriter(Integer.MAX_VALUE);
+        queue = start(writer, 4);
+
+        CompletableFuture<Void> written = queue.submit(accreditation(1));
+
+        assertThat(written).failsWithin(5, TimeUnit.SECONDS);
+        // El intento original más los cuatro reintentos
+        assertThat(writer.failures.get()).isEqualTo(5);
+        assertThat(writer.written).isEmpty();
+        assertThat(meterRegistry.counter("acreditaciones.ingesta.descartadas").count()).isEqualTo(1.0);
+    }
+
+    private AccreditationIngestionQueue start(AccreditationWriter writer, int maxRetries) {
+        AccreditationIngestionQueue started = new AccreditationIngestionQueue(writer, meterRegistry,
+                IngestionMode.WRITE_BEHIND, AckMode.DURABLE, 100, 10, Duration.ofMillis(5),
+                Duration.ofSeconds(5), maxRetries, Duration.ofMillis(10), false);
+        started.start();
+        return started;
+    }
+
+    private static Accreditation accreditation(long id) {
+        return new Accreditation(id, BigDecimal.TEN, 1L, LocalDateTime.of(2024, 1, 1, 12, 0), "CABA");
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Falla las primeras {@code failures} escrituras, como una base caída, y después escribe.
+     */
+    private static final class FailingWriter extends AccreditationWriter {
+
+        private final int failuresBeforeRecovery;
+        private final AtomicInteger failures = new AtomicInteger();
+        private final List<Long> written = new CopyOnWriteArrayList<>();
+
+        private FailingWriter(int failuresBeforeRecovery) {
+            super(null, null, null, new SimpleMeterRegistry());
+            this.failuresBeforeRecovery = failuresBeforeRecovery;
+        }
+
+        @Override
+        public void write(List<Accreditation> accreditations) {
+            if (failures.get() < failuresBeforeRecovery) {
+                failures.incrementAndGet();
+                throw new DataAccessResourceFailureException("base no disponible");
+            }
+            accreditations.forEach(a -> written.add(a.getId()));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.javasharks.puntosventaapi.ingestion;
+
+import com.javasharks.puntosventaapi.dto.SerieAcreditacionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Días que la compactación no llegó a escribir (el job estuvo parado más que
+ * {@code compaction-lookback}): tienen que seguir apareciendo en la serie diaria y la próxima
+ * compactación tiene que completarlos.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = "app.storage.type=memory")
+class AccreditationRollupsTest {
+
+    private static final long SELLING_POINT = 9001L;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private AccreditationRollups rollups;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime today = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+
+    @BeforeEach
+    void stalledCompaction() {
+        jdbcTemplate.update("DELETE FROM acreditaciones_por_hora");
+        jdbcTemplate.update("DELETE FROM acreditaciones_por_dia");
+        // Dos acreditaciones a las 10 de cada uno de los últimos seis días y una hoy
+        for (int daysAgo = 6; daysAgo >= 1; daysAgo--) {
+            hour(today.minusDays(daysAgo).plusHours(10), 2);
+        }
+        hour(today.plusHours(1), 1);
+        // Se compactó hace seis días y, con el lookback de dos días, ayer y anteayer; en el medio,
+        // el job estuvo parado
+        day(today.minusDays(6), 2);
+        day(today.minusDays(2), 2);
+        day(today.minusDays(1), 2);
+    }
+
+    @Test
+    void dailySeriesIncludesDaysCompactionMissed() {
+        Map<LocalDateTime, Long> series = dailySeries();
+
+        assertThat(series).containsOnlyKeys(
+                today.minusDays(6), today.minusDays(5), today.minusDays(4), today.minusDays(3),
+                today.minusDays(2), today.minusDays(1), today);
+        assertThat(series.get(today.minusDays(4))).isEqualTo(2L);
+        assertThat(series.get(today)).isEqualTo(1L);
+    }
+
+    @Test
+    void compactionResumesAfterTheLastCompactedDay() {
+        // La compactación de hace seis días es la última: los días siguientes nunca se escribieron
+        jdbcTemplate.update("DELETE FROM acreditaciones_por_dia WHERE bucket_start > ?",
+                Timestamp.valueOf(today.minusDays(6)));
+
+        rollups.compact();
+
+        List<LocalDateTime> compacted = jdbcTemplate.queryForList(
+                "SELECT bucket_start FROM acreditaciones_por_dia WHERE selling_point_id = ? ORDER BY 1",
+                Timestamp.class, SELLING_POINT).stream().map(Timestamp::toLocalDateTime).toList();
+        assertThat(compacted).containsExactly(
+                today.minusDays(6), today.minusDays(5), today.minusDays(4), today.minusDays(3),
+                today.minusDays(2), today.minusDays(1));
+        assertThat(dailySeries().get(today.minusDays(5))).isEqualTo(2L);
+    }
+
+    private Map<LocalDateTime, Long> dailySeries() {
+        Map<LocalDateTime, Long> counts = new TreeMap<>();
+        for (SerieAcreditacionResponse.Intervalo bucket : rollups.series(SELLING_POINT, today.minusDays(7),
+                today.plusDays(1), RollupGranularity.DAY)) {
+            assertThat(counts.put(bucket.inicio(), bucket.cantidad())).as("día repetido %s", bucket.inicio()).isNull();
+        }
+        return counts;
+    }
+
+    private void hour(LocalDateTime bucketStart, long count) {
+        jdbcTemplate.update("""
+                INSERT INTO acreditaciones_por_hora (selling_point_id, bucket_start, accreditation_count, total_amount)
+                VALUES (?, ?, ?, ?)
+                """, SELLING_POINT, Timestamp.valueOf(bucketStart), count, BigDecimal.TEN.multiply(BigDecimal.valueOf(count)));
+    }
+
+    private void day(LocalDateTime bucketStart, long count) {
+        jdbcTemplate.update("""
+                INSERT INTO acreditaciones_por_dia (selling_point_id, bucket_start, accreditation_count, total_amount)
+                VALUES (?, ?, ?, ?)
+                """, SELLING_POINT, Timestamp.valueOf(bucketStart), count, BigDecimal.TEN.multiply(BigDecimal.valueOf(count)));
+    }
+}
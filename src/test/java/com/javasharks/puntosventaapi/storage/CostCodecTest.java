@@ -0,0 +1,85 @@
+package com.javasharks.puntosventaapi.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CostCodecTest {
+
+    private static final double[] COSTS = {
+            0, 1, 37, 12.5, 0.1, 1.0 / 3, Math.PI, -4, -0.0,
+            // Enteros en el límite de la representación exacta y más allá
+            0x1p53 - 1, 0x1p53, 0x1p53 + 2, 1e20, 1e300, Double.MAX_VALUE, Double.MIN_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    private final GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    void roundTripsInBothFormats() {
+        for (RedisValueFormat format : RedisValueFormat.values()) {
+            for (double cost : COSTS) {
+                assertSameCost(CostCodec.decode(CostCodec.encode(cost, format)), cost, format + " " + cost);
+            }
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            double cost = random.nextDouble() * Math.pow(10, random.nextInt(12));
+            assertSameCost(CostCodec.decode(CostCodec.encode(cost, RedisValueFormat.COMPACT)), cost, "compacto " + cost);
+        }
+    }
+
+    @Test
+    void compactUsesTheShortestForm() {
+        assertThat(text(CostCodec.encode(37, RedisValueFormat.COMPACT))).isEqualTo("37");
+        assertThat(text(CostCodec.encode(12.5, RedisValueFormat.COMPACT))).isEqualTo("12.5");
+        // -0.0 como entero perdería el signo
+        assertThat(text(CostCodec.encode(-0.0, RedisValueFormat.COMPACT))).isEqualTo("-0.0");
+
+        byte[] pi = CostCodec.encode(Math.PI, RedisValueFormat.COMPACT);
+        assertThat(pi).hasSize(CostCodec.BINARY_LENGTH);
+        assertThat(pi[0]).isEqualTo(CostCodec.BINARY_MARKER);
+        // 2^53 + 2 ya no es un entero exacto seguro: va en binario
+        assertThat(CostCodec.encode(0x1p53 + 2, RedisValueFormat.COMPACT)).hasSize(CostCodec.BINARY_LENGTH);
+
+        // Los enteros exactos van como texto entero aunque sean largos (Redis los guarda como
+        // enteros); el resto nunca ocupa más que la forma binaria
+        assertThat(text(CostCodec.encode(0x1p53 - 1, RedisValueFormat.COMPACT))).isEqualTo("9007199254740991");
+        for (double cost : COSTS) {
+            if (cost != Math.rint(cost) || !Double.isFinite(cost)) {
+                assertThat(CostCodec.encode(cost, RedisValueFormat.COMPACT).length).as("%s", cost)
+                        .isLessThanOrEqualTo(CostCodec.BINARY_LENGTH);
+            }
+        }
+    }
+
+    @Test
+    void readsValuesWrittenByTheJsonSerializer() {
+        for (double cost : COSTS) {
+            byte[] written = legacy.serialize(cost);
+            assertSameCost(CostCodec.decode(written), cost, "JSON anterior " + text(written));
+        }
+    }
+
+    @Test
+    void jsonFormatWritesWhatTheJsonSerializerReads() {
+        // Instancias que todavía leen con el serializador JSON durante un despliegue gradual
+        for (double cost : COSTS) {
+            byte[] written = CostCodec.encode(cost, RedisValueFormat.JSON);
+            assertThat(text(written)).as("%s", cost).isEqualTo(text(legacy.serialize(cost)));
+        }
+    }
+
+    private static void assertSameCost(double actual, double expected, String where) {
+        // Compara los bits: distingue -0.0 y acepta NaN
+        assertThat(Double.doubleToLongBits(actual)).as(where).isEqualTo(Double.doubleToLongBits(expected));
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
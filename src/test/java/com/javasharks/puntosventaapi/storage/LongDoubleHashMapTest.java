@@ -0,0 +1,82 @@
+package com.javasharks.puntosventaapi.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongDoubleHashMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(1);
+        List<Long> keys = keyPool(random);
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        Map<Long, Double> expected = new HashMap<>();
+
+        for (int step = 0; step < 50_000; step++) {
+            // Fases que alternan crecimiento (rehash) y vaciado (desplazamientos al borrar)
+            boolean growing = (step / 2_000) % 2 == 0;
+            long key = keys.get(random.nextInt(keys.size()));
+            String where = "paso " + step + ", clave " + key;
+            if (random.nextDouble() < (growing ? 0.8 : 0.25)) {
+                double value = random.nextDouble();
+                assertThat(map.put(key, value)).as(where).isEqualTo(expected.put(key, value) == null);
+            } else {
+                assertThat(map.remove(key)).as(where).isEqualTo(expected.remove(key) != null);
+            }
+            assertThat(map.size()).as(where).isEqualTo(expected.size());
+            assertThat(map.isEmpty()).as(where).isEqualTo(expected.isEmpty());
+            if (step % 100 == 0) {
+                assertThat(contents(map)).as(where).isEqualTo(expected);
+            }
+        }
+        assertThat(contents(map)).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsZeroKey() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        assertThatThrownBy(() -> map.put(0L, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.remove(0L)).isFalse();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    /**
+     * IDs al azar más dos grupos que chocan en los 9 bits bajos del hash: uno cae en la primera
+     * celda y el otro en la última, así el sondeo y los desplazamientos al borrar dan la vuelta
+     * al final del arreglo en todas las capacidades de hasta 512 celdas.
+     */
+    static List<Long> keyPool(Random random) {
+        List<Long> keys = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            keys.add(id);
+        }
+        int first = 0;
+        int last = 0;
+        while (first < 40 || last < 40) {
+            long key = 1 + (random.nextLong() >>> 1);
+            int low = LongObjectHashMap.hash(key) & 0x1FF;
+            if (low == 0 && first < 40) {
+                keys.add(key);
+                first++;
+            } else if (low == 0x1FF && last < 40) {
+                keys.add(key);
+                last++;
+            }
+        }
+        return keys;
+    }
+
+    private static Map<Long, Double> contents(LongDoubleHashMap map) {
+        Map<Long, Double> contents = new HashMap<>();
+        map.forEach((key, value) -> assertThat(contents.put(key, value)).as("clave repetida %d", key).isNull());
+        return contents;
+    }
+}
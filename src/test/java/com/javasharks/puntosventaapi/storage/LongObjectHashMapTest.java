@@ -0,0 +1,69 @@
+package com.javasharks.puntosventaapi.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(2);
+        // Mismo conjunto de claves, con los grupos que chocan al principio y al final del arreglo
+        List<Long> keys = LongDoubleHashMapTest.keyPool(random);
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+
+        for (int step = 0; step < 50_000; step++) {
+            boolean growing = (step / 2_000) % 2 == 0;
+            long key = keys.get(random.nextInt(keys.size()));
+            String where = "paso " + step + ", clave " + key;
+            double op = random.nextDouble();
+            if (op < 0.005) {
+                map.clear();
+                expected.clear();
+            } else if (op < 0.1) {
+                String value = "nuevo-" + step;
+                assertThat(map.computeIfAbsent(key, k -> value)).as(where)
+                        .isEqualTo(expected.computeIfAbsent(key, k -> value));
+            } else if (op < (growing ? 0.8 : 0.3)) {
+                String value = "valor-" + step;
+                map.put(key, value);
+                expected.put(key, value);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+            assertThat(map.size()).as(where).isEqualTo(expected.size());
+            // Una clave tocada y otra cualquiera, que puede haber cambiado de celda por el borrado
+            assertThat(map.get(key)).as(where).isEqualTo(expected.get(key));
+            long other = keys.get(random.nextInt(keys.size()));
+            assertThat(map.get(other)).as(where + ", otra " + other).isEqualTo(expected.get(other));
+            if (step % 100 == 0) {
+                assertThat(contents(map)).as(where).isEqualTo(expected);
+            }
+        }
+        assertThat(contents(map)).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsZeroKey() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertThatThrownBy(() -> map.put(0L, "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(0L)).isNull();
+        map.remove(0L);
+        assertThat(map.size()).isZero();
+    }
+
+    private static Map<Long, String> contents(LongObjectHashMap<String> map) {
+        Map<Long, String> contents = new HashMap<>();
+        map.forEach((key, value) -> assertThat(contents.put(key, value)).as("clave repetida %d", key).isNull());
+        return contents;
+    }
+}
@@ -0,0 +1,146 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.config.RedisConfig;
+import com.javasharks.puntosventaapi.graph.CostGraph;
+import com.javasharks.puntosventaapi.model.Charge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los comandos que cuenta un pedido tienen que coincidir con los que Redis dice haber recibido
+ * ({@code INFO commandstats}), también cuando van en tandas de SCAN o dentro de un pipeline.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisCommandCountTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, Object> redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RedisCommandMetrics metrics = new RedisCommandMetrics(meterRegistry);
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        RedisConfig.redisCommandsPerRequestListener()
+                .postProcessAfterInitialization(connectionFactory, "redisConnectionFactory");
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void emptyRedis() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Test
+    void countsEveryScanBatch() {
+        StringRedisSerializer serializer = StringRedisSerializer.UTF_8;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < 2000; i++) {
+                connection.stringCommands().set(serializer.serialize("prueba:" + i), serializer.serialize("x"));
+            }
+            return null;
+        });
+        resetCommandStats();
+
+        List<String> keys = inRequest(() -> RedisKeyScanner.scan(redisTemplate, "prueba:*"));
+
+        assertThat(keys).hasSize(2000);
+        Map<String, Long> received = receivedCommands();
+        assertThat(received.get("scan")).isGreaterThan(1L);
+        assertThat(countedInRequest()).isEqualTo(received.get("scan"));
+    }
+
+    @Test
+    void countsEveryCommandOfAPipelinedLoad() {
+        RedisCostGraphStore store = new RedisCostGraphStore(redisTemplate, RedisValueFormat.COMPACT);
+        List<Charge> chain = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            chain.add(new Charge(id, id + 1, 1.0));
+        }
+        store.putEdges(chain);
+        resetCommandStats();
+
+        CostGraph graph = inRequest(store::load);
+
+        assertThat(graph.nodeCount()).isEqualTo(301);
+        Map<String, Long> received = receivedCommands();
+        assertThat(received).containsEntry("hgetall", 301L);
+        assertThat(countedInRequest()).isEqualTo(received.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private <T> T inRequest(Supplier<T> work) {
+        RedisCommandMetrics.RequestCount count = new RedisCommandMetrics.RequestCount();
+        try (RedisCommandMetrics.Scope ignored = RedisCommandMetrics.bind(count)) {
+            return work.get();
+        } finally {
+            metrics.recordRequest(count);
+        }
+    }
+
+    private long countedInRequest() {
+        return (long) meterRegistry.summary("redis.commands.per.request").totalAmount();
+    }
+
+    private void resetCommandStats() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().resetConfigStats();
+            return null;
+        });
+    }
+
+    /**
+     * Llamadas por comando desde el último CONFIG RESETSTAT, sin los de este test ni el
+     * handshake de las conexiones nuevas, que no son comandos de la aplicación.
+     */
+    private Map<String, Long> receivedCommands() {
+        Properties stats = redisTemplate.execute(
+                (RedisCallback<Properties>) connection -> connection.serverCommands().info("commandstats"));
+        Map<String, Long> calls = new HashMap<>();
+        for (String name : stats.stringPropertyNames()) {
+            String command = name.substring("cmdstat_".length());
+            if (command.startsWith("config") || command.equals("info") || command.equals("hello")
+                    || command.startsWith("client")) {
+                continue;
+            }
+            String value = stats.getProperty(name);
+            calls.put(command, Long.parseLong(value.substring("calls=".length(), value.indexOf(','))));
+        }
+        return calls;
+    }
+}
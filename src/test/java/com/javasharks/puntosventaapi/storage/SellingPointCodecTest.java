@@ -0,0 +1,65 @@
+package com.javasharks.puntosventaapi.storage;
+
+import com.javasharks.puntosventaapi.model.SellingPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SellingPointCodecTest {
+
+    private static final List<SellingPoint> SELLING_POINTS = List.of(
+            new SellingPoint(1L, "CABA"),
+            new SellingPoint(5L, "Córdoba"),
+            new SellingPoint(42L, "São Paulo – Ñuñoa"),
+            new SellingPoint(1_000_000L, "東京 🏪"),
+            new SellingPoint(Long.MAX_VALUE, "x")
+    );
+
+    private final SellingPointCodec compact = new SellingPointCodec(RedisValueFormat.COMPACT);
+    private final SellingPointCodec json = new SellingPointCodec(RedisValueFormat.JSON);
+    // Serializador con el que se escribían los valores antes del formato compacto
+    private final GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+
+    @Test
+    void compactRoundTrip() {
+        for (SellingPoint sellingPoint : SELLING_POINTS) {
+            byte[] written = compact.serialize(sellingPoint);
+            assertThat(written[0]).isEqualTo(SellingPointCodec.VERSION_1);
+            // Versión, ID y el nombre en UTF-8, sin nada más
+            assertThat(written).hasSize(1 + Long.BYTES + sellingPoint.nombre().getBytes(StandardCharsets.UTF_8).length);
+            assertThat(compact.deserialize(written)).isEqualTo(sellingPoint);
+            assertThat(written.length).isLessThan(legacy.serialize(sellingPoint).length);
+        }
+    }
+
+    @Test
+    void readsBothFormatsWhateverItWrites() {
+        for (SellingPoint sellingPoint : SELLING_POINTS) {
+            byte[] oldValue = legacy.serialize(sellingPoint);
+            assertThat(compact.deserialize(oldValue)).as("JSON anterior con formato compacto").isEqualTo(sellingPoint);
+            assertThat(json.deserialize(oldValue)).isEqualTo(sellingPoint);
+
+            // Una instancia en JSON lee lo que escribe una en formato compacto, y viceversa
+            assertThat(json.deserialize(compact.serialize(sellingPoint))).isEqualTo(sellingPoint);
+            assertThat(compact.deserialize(json.serialize(sellingPoint))).isEqualTo(sellingPoint);
+        }
+    }
+
+    @Test
+    void jsonFormatWritesTheLegacyValue() {
+        for (SellingPoint sellingPoint : SELLING_POINTS) {
+            assertThat(json.serialize(sellingPoint)).isEqualTo(legacy.serialize(sellingPoint));
+        }
+    }
+
+    @Test
+    void nullAndEmptyValues() {
+        assertThat(compact.serialize(null)).isNull();
+        assertThat(compact.deserialize(null)).isNull();
+        assertThat(compact.deserialize(new byte[0])).isNull();
+    }
+}